@@ -0,0 +1,75 @@
+package com.tickets.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tickets.domain.Order;
+import com.tickets.domain.User;
+import com.tickets.dto.OrderSummary;
+import com.tickets.dto.UserDetail;
+import com.tickets.json.ResponseSerializers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização Jackson (com a mesma configuração padrão do Spring MVC) das respostas de leitura,
+// escrevendo num stream descartável para medir só o custo do serializer. serializers=bean usa os
+// BeanSerializers do Jackson; serializers=streaming instala os ResponseSerializers da aplicação
+// (as entidades continuam no BeanSerializer nos dois casos). Compare gc.alloc.rate.norm entre os dois.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int orders;
+
+    @Param({"bean", "streaming"})
+    public String serializers;
+
+    private final OutputStream descarte = OutputStream.nullOutputStream();
+    private ObjectWriter writer;
+    private User user;
+    private List<Order> ordersEntidade;
+    private List<OrderSummary> ordersProjecao;
+    private UserDetail detalhe;
+
+    @Setup
+    public void setup() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (serializers.equals("streaming")) {
+            builder.modulesToInstall(new ResponseSerializers());
+        }
+        writer = builder.build().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        user = OrderFixtures.usuarioComOrders(orders);
+        ordersEntidade = user.getOrders();
+        ordersProjecao = OrderFixtures.resumos(ordersEntidade);
+        detalhe = new UserDetail(user.getIdUser(), user.getName(), ordersProjecao);
+    }
+
+    @Benchmark
+    public void ordersEntidade() throws IOException {
+        writer.writeValue(descarte, ordersEntidade);
+    }
+
+    @Benchmark
+    public void ordersProjecao() throws IOException {
+        writer.writeValue(descarte, ordersProjecao);
+    }
+
+    @Benchmark
+    public void user() throws IOException {
+        writer.writeValue(descarte, user);
+    }
+
+    @Benchmark
+    public void detalheUsuario() throws IOException {
+        writer.writeValue(descarte, detalhe);
+    }
+}
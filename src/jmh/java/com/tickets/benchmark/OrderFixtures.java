@@ -0,0 +1,41 @@
+package com.tickets.benchmark;
+
+import com.tickets.domain.Order;
+import com.tickets.domain.User;
+import com.tickets.dto.OrderSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class OrderFixtures {
+
+    private OrderFixtures() {
+    }
+
+    static User usuarioComOrders(int quantidade) {
+        User user = new User();
+        user.setIdUser(1L);
+        user.setName("Cliente Benchmark");
+        user.setEmail("cliente@benchmark.com");
+        List<Order> orders = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Order order = new Order();
+            order.setId((long) i + 1);
+            order.setItem("Ingresso setor " + (i % 40));
+            order.setQuantity(1 + i % 6);
+            order.setValue(50.0 + i % 300);
+            order.setUser(user);
+            orders.add(order);
+        }
+        user.setOrders(orders);
+        return user;
+    }
+
+    static List<OrderSummary> resumos(List<Order> orders) {
+        List<OrderSummary> resumos = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            resumos.add(new OrderSummary(order.getIdOrder(), order.getItem(), order.getQuantity(), order.getValue()));
+        }
+        return resumos;
+    }
+}
@@ -0,0 +1,77 @@
+package com.tickets.benchmark;
+
+import com.tickets.domain.Order;
+import com.tickets.domain.User;
+import com.tickets.dto.OrderSummary;
+import com.tickets.dto.UserDetail;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Custo de montar as respostas de GET /orders e GET /users/detalhe-usuario/{id} a partir das linhas
+// já carregadas. Os métodos "legado" reproduzem a cópia de entidade e os HashMaps que os controllers
+// faziam antes das projeções.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadPathMappingBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int orders;
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        user = OrderFixtures.usuarioComOrders(orders);
+    }
+
+    @Benchmark
+    public List<Order> listaLegadoCopiaEntidade() {
+        return user.getOrders().stream()
+                .map(order -> {
+                    Order orderSimples = new Order();
+                    orderSimples.setId(order.getIdOrder());
+                    orderSimples.setItem(order.getItem());
+                    orderSimples.setQuantity(order.getQuantity());
+                    orderSimples.setValue(order.getValue());
+                    orderSimples.setUser(null);
+                    return orderSimples;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<OrderSummary> listaProjecao() {
+        return OrderFixtures.resumos(user.getOrders());
+    }
+
+    @Benchmark
+    public Map<String, Object> detalheUsuarioLegadoHashMap() {
+        Map<String, Object> detalhe = new HashMap<>();
+        detalhe.put("idUser", user.getIdUser());
+        detalhe.put("name", user.getName());
+        detalhe.put("orders", user.getOrders().stream()
+                .map(order -> {
+                    Map<String, Object> orderDetalhe = new HashMap<>();
+                    orderDetalhe.put("idOrder", order.getIdOrder());
+                    orderDetalhe.put("item", order.getItem());
+                    orderDetalhe.put("quantity", order.getQuantity());
+                    orderDetalhe.put("value", order.getValue());
+                    return orderDetalhe;
+                }).collect(Collectors.toList()));
+        return detalhe;
+    }
+
+    @Benchmark
+    public UserDetail detalheUsuarioRecord() {
+        return new UserDetail(user.getIdUser(), user.getName(), OrderFixtures.resumos(user.getOrders()));
+    }
+}
@@ -0,0 +1,102 @@
+package com.tickets.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Decide antes do controller se o request entra: primeiro a cota do cliente, depois uma vaga no
+// endpoint. Sem vaga a resposta é 429 na hora, em vez de o request esperar conexão no Hikari.
+// Requests assíncronos (export) seguram a vaga até o dispatch final.
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlInterceptor.class);
+    private static final String ATRIBUTO_VAGA = AdmissionControlInterceptor.class.getName() + ".vaga";
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ClientRateLimiter rateLimiter;
+    private final ConcurrentMap<String, EndpointLimit> limites = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdmissionControlInterceptor(AdmissionProperties properties, MeterRegistry meterRegistry,
+                                       @Value("${server.forward-headers-strategy:none}") String forwardHeadersStrategy) {
+        // Atrás de proxy ou balanceador o endereço remoto é o do proxy, e todos os clientes dividiriam a mesma
+        // cota. Com cota por cliente ligada, o cliente tem que vir de um header ou dos headers X-Forwarded-*.
+        if (properties.isEnabled() && properties.getClientRate() > 0
+                && !StringUtils.hasText(properties.getClientHeader())
+                && "none".equalsIgnoreCase(forwardHeadersStrategy.trim())) {
+            throw new IllegalStateException("tickets.admission.client-rate exige tickets.admission.client-header "
+                    + "ou server.forward-headers-strategy (native ou framework)");
+        }
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.rateLimiter = properties.getClientRate() > 0
+                ? new ClientRateLimiter(properties.getClientRate(), properties.getClientBurst(), properties.getClientStripes())
+                : null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        EndpointLimit limite = limites.computeIfAbsent(endpoint,
+                chave -> new EndpointLimit(chave, properties.limitePara(chave), meterRegistry));
+
+        if (rateLimiter != null && !rateLimiter.permitir(cliente(request))) {
+            limite.recusadosPorTaxa.increment();
+            return recusar(response, endpoint, "cota do cliente");
+        }
+        if (!limite.tentarAdquirir()) {
+            limite.recusadosPorConcorrencia.increment();
+            return recusar(response, endpoint, "endpoint sem vaga");
+        }
+        limite.admitidos.increment();
+        request.setAttribute(ATRIBUTO_VAGA, limite);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object vaga = request.getAttribute(ATRIBUTO_VAGA);
+        if (vaga != null) {
+            request.removeAttribute(ATRIBUTO_VAGA);
+            ((EndpointLimit) vaga).liberar();
+        }
+    }
+
+    private String cliente(HttpServletRequest request) {
+        if (StringUtils.hasText(properties.getClientHeader())) {
+            String valor = request.getHeader(properties.getClientHeader());
+            if (StringUtils.hasText(valor)) {
+                return valor;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // DEBUG e não WARN: num pico são milhares de recusas por segundo, e a métrica já conta cada uma.
+    private boolean recusar(HttpServletResponse response, String endpoint, String motivo) {
+        logger.debug("RESPONSE SENT: {} - Status: {} ({})", endpoint, HttpStatus.TOO_MANY_REQUESTS, motivo);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, properties.getRetryAfter().toSeconds())));
+        return false;
+    }
+}
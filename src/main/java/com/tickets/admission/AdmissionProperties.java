@@ -0,0 +1,101 @@
+package com.tickets.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "tickets.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Requests por segundo sustentados por cliente; <= 0 (padrão) desliga o limite por cliente.
+    private double clientRate = 0;
+
+    // Rajada aceita acima da taxa sustentada.
+    private int clientBurst = 100;
+
+    // Faixas do limitador por cliente; clientes com o mesmo hash dividem a mesma cota.
+    private int clientStripes = 65536;
+
+    // Header que identifica o cliente; vazio = endereço remoto.
+    private String clientHeader;
+
+    // Requests simultâneos por endpoint quando não há valor em "endpoints".
+    private int defaultMaxConcurrent = 32;
+
+    // Limite de requests simultâneos por endpoint, no formato "GET /orders/detalhe/{id}".
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public int limitePara(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultMaxConcurrent);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getClientRate() {
+        return clientRate;
+    }
+
+    public void setClientRate(double clientRate) {
+        this.clientRate = clientRate;
+    }
+
+    public int getClientBurst() {
+        return clientBurst;
+    }
+
+    public void setClientBurst(int clientBurst) {
+        this.clientBurst = clientBurst;
+    }
+
+    public int getClientStripes() {
+        return clientStripes;
+    }
+
+    public void setClientStripes(int clientStripes) {
+        this.clientStripes = clientStripes;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public int getDefaultMaxConcurrent() {
+        return defaultMaxConcurrent;
+    }
+
+    public void setDefaultMaxConcurrent(int defaultMaxConcurrent) {
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+    }
+
+    public Map<String, Integer> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Integer> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,45 @@
+package com.tickets.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Token bucket por cliente na forma GCRA: cada faixa guarda só o "instante teórico de chegada" do
+// próximo request, atualizado com um CAS, sem lock e sem objeto por cliente. O cliente cai numa
+// faixa pelo hash; a memória é fixa (8 bytes por faixa) e não precisa de expiração.
+final class ClientRateLimiter {
+
+    private final AtomicLongArray chegadaTeorica;
+    private final int mascara;
+    private final long intervalo;
+    private final long tolerancia;
+    private final long origem = System.nanoTime();
+
+    ClientRateLimiter(double requestsPorSegundo, int rajada, int faixas) {
+        int tamanho = Integer.highestOneBit(Math.max(2, faixas - 1)) << 1;
+        this.chegadaTeorica = new AtomicLongArray(tamanho);
+        this.mascara = tamanho - 1;
+        this.intervalo = (long) (1_000_000_000L / requestsPorSegundo);
+        this.tolerancia = intervalo * Math.max(1, rajada);
+    }
+
+    boolean permitir(String cliente) {
+        return permitir(cliente, System.nanoTime() - origem);
+    }
+
+    boolean permitir(String cliente, long agora) {
+        int faixa = espalhar(cliente.hashCode()) & mascara;
+        while (true) {
+            long atual = chegadaTeorica.get(faixa);
+            long proxima = Math.max(atual, agora) + intervalo;
+            if (proxima - agora > tolerancia) {
+                return false;
+            }
+            if (chegadaTeorica.compareAndSet(faixa, atual, proxima)) {
+                return true;
+            }
+        }
+    }
+
+    private static int espalhar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
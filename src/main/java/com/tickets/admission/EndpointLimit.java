@@ -0,0 +1,56 @@
+package com.tickets.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Vagas simultâneas de um endpoint. tentarAdquirir nunca espera: sem vaga, o request é recusado.
+final class EndpointLimit {
+
+    private final int maximo;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+
+    final Counter admitidos;
+    final Counter recusadosPorTaxa;
+    final Counter recusadosPorConcorrencia;
+
+    EndpointLimit(String endpoint, int maximo, MeterRegistry meterRegistry) {
+        this.maximo = maximo;
+        this.admitidos = contador(meterRegistry, endpoint, "admitted");
+        this.recusadosPorTaxa = contador(meterRegistry, endpoint, "rejected_rate");
+        this.recusadosPorConcorrencia = contador(meterRegistry, endpoint, "rejected_concurrency");
+        Gauge.builder("tickets.admission.in_flight", emAndamento, AtomicInteger::get)
+                .description("Requests em andamento no endpoint")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("tickets.admission.limit", this, limite -> limite.maximo)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    boolean tentarAdquirir() {
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= maximo) {
+                return false;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void liberar() {
+        emAndamento.decrementAndGet();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String endpoint, String resultado) {
+        return Counter.builder("tickets.admission.requests")
+                .description("Decisões do controle de admissão")
+                .tag("endpoint", endpoint)
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,146 @@
+package com.tickets.batch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Junta buscas pontuais concorrentes numa consulta só (WHERE id IN (...)). Quem abre o lote espera a
+// janela e executa a consulta no próprio thread, para todos; quem completa o lote executa na hora.
+// Chaves que já estão em voo não entram de novo: quem pede espera o mesmo resultado.
+public class BatchLoader<K, V> {
+
+    private final Function<List<K>, Map<K, V>> carga;
+    private final long janelaNanos;
+    private final int loteMaximo;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> emVoo = new ConcurrentHashMap<>();
+    // ReentrantLock em vez de synchronized: não prende virtual threads ao carrier.
+    private final ReentrantLock trava = new ReentrantLock();
+
+    private final DistributionSummary tamanhoDosLotes;
+    private final Counter agrupadas;
+    private final Counter compartilhadas;
+
+    private Lote<K> aberto;
+
+    private static final class Lote<K> {
+        final List<K> chaves = new ArrayList<>();
+        final Thread lider = Thread.currentThread();
+        volatile boolean fechado;
+    }
+
+    BatchLoader(Function<List<K>, Map<K, V>> carga, long janelaNanos, int loteMaximo,
+                DistributionSummary tamanhoDosLotes, Counter agrupadas, Counter compartilhadas) {
+        this.carga = carga;
+        this.janelaNanos = janelaNanos;
+        this.loteMaximo = Math.max(1, loteMaximo);
+        this.tamanhoDosLotes = tamanhoDosLotes;
+        this.agrupadas = agrupadas;
+        this.compartilhadas = compartilhadas;
+    }
+
+    public Optional<V> buscar(K chave) {
+        CompletableFuture<V> futuro = new CompletableFuture<>();
+        CompletableFuture<V> emAndamento = emVoo.putIfAbsent(chave, futuro);
+        if (emAndamento != null) {
+            compartilhadas.increment();
+            return aguardar(emAndamento);
+        }
+
+        Lote<K> lote;
+        boolean lider;
+        boolean cheio;
+        trava.lock();
+        try {
+            lider = aberto == null;
+            if (lider) {
+                aberto = new Lote<>();
+            }
+            lote = aberto;
+            lote.chaves.add(chave);
+            cheio = lote.chaves.size() >= loteMaximo;
+            if (cheio) {
+                fechar(lote);
+            }
+        } finally {
+            trava.unlock();
+        }
+
+        if (cheio) {
+            LockSupport.unpark(lote.lider);
+            executar(lote);
+        } else if (lider) {
+            esperarJanela(lote);
+        }
+        return aguardar(futuro);
+    }
+
+    // Se o lote encheu antes do fim da janela, quem o completou já executou a consulta.
+    private void esperarJanela(Lote<K> lote) {
+        long limite = System.nanoTime() + janelaNanos;
+        long restante;
+        while (!lote.fechado && (restante = limite - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, restante);
+        }
+        boolean executarAqui;
+        trava.lock();
+        try {
+            executarAqui = !lote.fechado;
+            if (executarAqui) {
+                fechar(lote);
+            }
+        } finally {
+            trava.unlock();
+        }
+        if (executarAqui) {
+            executar(lote);
+        }
+    }
+
+    private void fechar(Lote<K> lote) {
+        lote.fechado = true;
+        aberto = null;
+    }
+
+    // As chaves saem de emVoo antes de o resultado ser entregue: quem chegar depois faz uma busca nova.
+    private void executar(Lote<K> lote) {
+        List<K> chaves = List.copyOf(lote.chaves);
+        tamanhoDosLotes.record(chaves.size());
+        agrupadas.increment(chaves.size() - 1);
+        Map<K, V> valores;
+        try {
+            valores = carga.apply(chaves);
+        } catch (RuntimeException | Error e) {
+            for (K chave : chaves) {
+                emVoo.remove(chave).completeExceptionally(e);
+            }
+            return;
+        }
+        for (K chave : chaves) {
+            emVoo.remove(chave).complete(valores.get(chave));
+        }
+    }
+
+    private static <V> Optional<V> aguardar(CompletableFuture<V> futuro) {
+        try {
+            return Optional.ofNullable(futuro.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.tickets.batch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Cria os BatchLoaders dos serviços com a janela e o tamanho de lote configurados e as métricas por loader.
+@Component
+public class BatchLoaders {
+
+    private final long janelaNanos;
+    private final int loteMaximo;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public BatchLoaders(@Value("${tickets.batch-loader.window:1ms}") Duration janela,
+                        @Value("${tickets.batch-loader.max-batch-size:100}") int loteMaximo,
+                        MeterRegistry meterRegistry) {
+        this.janelaNanos = janela.toNanos();
+        this.loteMaximo = loteMaximo;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // A carga recebe chaves distintas e devolve só as encontradas; as ausentes viram Optional vazio.
+    public <K, V> BatchLoader<K, V> criar(String nome, Function<List<K>, Map<K, V>> carga) {
+        DistributionSummary tamanhoDosLotes = DistributionSummary.builder("tickets.batch-loader.batch.size")
+                .description("Chaves por consulta do loader")
+                .tag("loader", nome)
+                .register(meterRegistry);
+        Counter agrupadas = Counter.builder("tickets.batch-loader.coalesced")
+                .description("Buscas atendidas pela consulta de outra chamada")
+                .tag("loader", nome)
+                .tag("tipo", "lote")
+                .register(meterRegistry);
+        Counter compartilhadas = Counter.builder("tickets.batch-loader.coalesced")
+                .description("Buscas atendidas pela consulta de outra chamada")
+                .tag("loader", nome)
+                .tag("tipo", "em-voo")
+                .register(meterRegistry);
+        return new BatchLoader<>(carga, janelaNanos, loteMaximo, tamanhoDosLotes, agrupadas, compartilhadas);
+    }
+}
@@ -0,0 +1,177 @@
+package com.tickets.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import com.tickets.dto.UserSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Component
+public class UserCache {
+
+    private final Cache<Long, UserSummary> porId;
+    private final Cache<String, UserSummary> porEmail;
+    private final EstatisticasDeCarga statsPorId = new EstatisticasDeCarga();
+    private final EstatisticasDeCarga statsPorEmail = new EstatisticasDeCarga();
+    // Emails cacheados de cada id: a invalidação remove essas chaves direto, sem varrer porEmail.
+    private final Map<Long, Set<String>> emailsPorId = new ConcurrentHashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+
+    @Autowired
+    public UserCache(@Value("${tickets.cache.users.maximum-size:10000}") long maximumSize,
+                     @Value("${tickets.cache.users.ttl:10m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.porId = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl)
+                .recordStats(() -> statsPorId).build();
+        this.porEmail = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl)
+                .recordStats(() -> statsPorEmail)
+                .<String, UserSummary>evictionListener((email, user, causa) -> {
+                    if (email != null && user != null) {
+                        esquecerEmail(user.idUser(), email);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, porId, "users-by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, porEmail, "users-by-email");
+        monitorarCargas(meterRegistry, porId, "users-by-id");
+        monitorarCargas(meterRegistry, porEmail, "users-by-email");
+    }
+
+    // O CaffeineCacheMetrics só publica cache.load e cache.load.duration para LoadingCache; aqui a carga é
+    // externa, então os mesmos medidores são registrados em cima das estatísticas que buscar alimenta.
+    private static void monitorarCargas(MeterRegistry meterRegistry, Cache<?, ?> cache, String nome) {
+        TimeGauge.builder("cache.load.duration", cache, TimeUnit.NANOSECONDS, c -> c.stats().totalLoadTime())
+                .tag("cache", nome)
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadSuccessCount())
+                .tags("cache", nome, "result", "success")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadFailureCount())
+                .tags("cache", nome, "result", "failure")
+                .register(meterRegistry);
+    }
+
+    // Usuário inexistente não é cacheado: a próxima leitura volta ao banco.
+    public Optional<UserSummary> buscarPorId(Long id, Function<Long, Optional<UserSummary>> loader) {
+        return buscar(porId, statsPorId, id, loader, user -> { });
+    }
+
+    public Optional<UserSummary> buscarPorEmail(String email, Function<String, Optional<UserSummary>> loader) {
+        return buscar(porEmail, statsPorEmail, email, loader, user -> emailsPorId.compute(user.idUser(), (id, emails) -> {
+            Set<String> atualizados = emails != null ? emails : ConcurrentHashMap.newKeySet();
+            atualizados.add(email);
+            return atualizados;
+        }));
+    }
+
+    // O loader roda fora do Cache.get(key, loader): lá ele rodaria dentro do compute do mapa, segurando a
+    // faixa da chave (e o carrier da virtual thread) durante a consulta. Buscas concorrentes da mesma chave
+    // já se juntam no BatchLoader. O valor só é gravado se nenhuma invalidação começou durante a carga;
+    // senão ele pode ter sido lido antes da escrita. Como o Caffeine não vê essa carga, ela é registrada à
+    // mão nas estatísticas do cache; usuário inexistente conta como falha, como um loader que devolve null.
+    private <K> Optional<UserSummary> buscar(Cache<K, UserSummary> cache, EstatisticasDeCarga stats, K chave,
+                                             Function<K, Optional<UserSummary>> loader, Consumer<UserSummary> aoGravar) {
+        UserSummary cacheado = cache.getIfPresent(chave);
+        if (cacheado != null) {
+            return Optional.of(cacheado);
+        }
+        long geracaoDaCarga = geracao.get();
+        long inicio = System.nanoTime();
+        Optional<UserSummary> carregado;
+        try {
+            carregado = loader.apply(chave);
+        } catch (RuntimeException e) {
+            stats.registrarCarga(false, System.nanoTime() - inicio);
+            throw e;
+        }
+        stats.registrarCarga(carregado.isPresent(), System.nanoTime() - inicio);
+        carregado.ifPresent(user -> cache.asMap().compute(chave, (key, atual) -> {
+            if (geracao.get() != geracaoDaCarga) {
+                return atual;
+            }
+            aoGravar.accept(user);
+            return user;
+        }));
+        return carregado;
+    }
+
+    // Chamado depois do commit de toda escrita. O email pode ter mudado, então as entradas por email
+    // vêm de emailsPorId, não do usuário novo.
+    public void invalidar(Long id) {
+        geracao.incrementAndGet();
+        porId.invalidate(id);
+        Set<String> emails = emailsPorId.remove(id);
+        if (emails != null) {
+            porEmail.invalidateAll(emails);
+        }
+    }
+
+    private void esquecerEmail(Long id, String email) {
+        emailsPorId.computeIfPresent(id, (chave, emails) -> {
+            emails.remove(email);
+            return emails.isEmpty() ? null : emails;
+        });
+    }
+
+    // O asMap().compute de buscar conta como carga só o tempo da gravação. Esse contador ignora as cargas
+    // que o Caffeine informa e fica só com as de registrarCarga, que medem o loader de verdade.
+    private static final class EstatisticasDeCarga implements StatsCounter {
+
+        private final StatsCounter delegado = new ConcurrentStatsCounter();
+
+        void registrarCarga(boolean sucesso, long nanos) {
+            if (sucesso) {
+                delegado.recordLoadSuccess(nanos);
+            } else {
+                delegado.recordLoadFailure(nanos);
+            }
+        }
+
+        @Override
+        public void recordHits(int count) {
+            delegado.recordHits(count);
+        }
+
+        @Override
+        public void recordMisses(int count) {
+            delegado.recordMisses(count);
+        }
+
+        @Override
+        public void recordLoadSuccess(long loadTime) {
+        }
+
+        @Override
+        public void recordLoadFailure(long loadTime) {
+        }
+
+        @Override
+        public void recordEviction(int weight, RemovalCause cause) {
+            delegado.recordEviction(weight, cause);
+        }
+
+        @Override
+        public CacheStats snapshot() {
+            return delegado.snapshot();
+        }
+    }
+}
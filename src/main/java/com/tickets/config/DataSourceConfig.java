@@ -0,0 +1,132 @@
+package com.tickets.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import com.tickets.shard.ShardedSequenceGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties({ReadReplicaProperties.class, ShardProperties.class})
+public class DataSourceConfig implements DisposableBean {
+
+    private final List<AutoCloseable> recursos = new ArrayList<>();
+
+    // O proxy só pega a conexão física no primeiro statement: transações sem SQL (ex.: hit no cache)
+    // não ocupam o pool, e o roteamento já enxerga o readOnly da transação.
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, ReadReplicaProperties replicaProperties,
+                                 ShardProperties shardProperties, Environment environment, MeterRegistry meterRegistry) {
+        MicrometerMetricsTrackerFactory metricas = new MicrometerMetricsTrackerFactory(meterRegistry);
+        DataSource principal = principal(properties, replicaProperties, environment, meterRegistry, metricas);
+        if (shardProperties.getShards().isEmpty()) {
+            return new LazyConnectionDataSourceProxy(principal);
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(principal);
+        for (int i = 0; i < shardProperties.getShards().size(); i++) {
+            ShardProperties.Shard config = shardProperties.getShards().get(i);
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + (i + 1));
+            shard.setJdbcUrl(config.getUrl());
+            shard.setUsername(config.getUsername() != null ? config.getUsername() : properties.determineUsername());
+            shard.setPassword(config.getPassword() != null ? config.getPassword() : properties.determinePassword());
+            shard.setDriverClassName(properties.determineDriverClassName());
+            shard.setMaximumPoolSize(config.getMaximumPoolSize());
+            shard.setConnectionTimeout(config.getConnectionTimeout().toMillis());
+            shard.setMetricsTrackerFactory(metricas);
+            shards.add(shard);
+            recursos.add(shard);
+        }
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shards));
+    }
+
+    // Banco principal (shard 0): primário, e réplicas de leitura se configuradas.
+    private DataSource principal(DataSourceProperties properties, ReadReplicaProperties replicaProperties,
+                                 Environment environment, MeterRegistry meterRegistry,
+                                 MicrometerMetricsTrackerFactory metricas) {
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setMetricsTrackerFactory(metricas);
+        recursos.add(primary);
+
+        if (replicaProperties.getReplicas().isEmpty()) {
+            return primary;
+        }
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getReplicas().size(); i++) {
+            ReadReplicaProperties.Replica config = replicaProperties.getReplicas().get(i);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(config.getUrl());
+            replica.setUsername(config.getUsername() != null ? config.getUsername() : primary.getUsername());
+            replica.setPassword(config.getPassword() != null ? config.getPassword() : primary.getPassword());
+            replica.setDriverClassName(primary.getDriverClassName());
+            replica.setMaximumPoolSize(config.getMaximumPoolSize());
+            replica.setConnectionTimeout(config.getConnectionTimeout().toMillis());
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(metricas);
+            // Sobe mesmo com a réplica fora do ar; a verificação de saúde decide quando usá-la.
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+            recursos.add(replica);
+        }
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas,
+                replicaProperties.getHealthCheckInterval());
+        recursos.add(0, routing);
+        Gauge.builder("tickets.datasource.replicas.healthy", routing, ReadWriteRoutingDataSource::replicasSaudaveis)
+                .description("Réplicas de leitura no rodízio")
+                .register(meterRegistry);
+        return routing;
+    }
+
+    // O gerador de ids dos pedidos precisa do número de shards já na subida do Hibernate.
+    @Bean
+    public HibernatePropertiesCustomizer shardHibernateCustomizer(ShardProperties shardProperties) {
+        return properties -> properties.put(ShardedSequenceGenerator.SHARDS, shardProperties.total());
+    }
+
+    // Roda antes do JPA (ver SchemaMigratorDatabaseInitializerDetector); fora de transação
+    // readOnly, então o roteamento manda para o primário. Shards extras têm migrações próprias, só de orders.
+    @Bean
+    @ConditionalOnProperty(name = "tickets.schema.migrate", havingValue = "true", matchIfMissing = true)
+    public SchemaMigrator schemaMigrator(DataSource dataSource,
+                                         @Value("${tickets.schema.locations:classpath:db/migration/{vendor}}") String localizacao,
+                                         @Value("${tickets.schema.shard-locations:classpath:db/migration/shard/{vendor}}") String localizacaoShards) {
+        List<DataSource> shardsExtras = new ArrayList<>();
+        if (dataSource instanceof LazyConnectionDataSourceProxy proxy
+                && proxy.getTargetDataSource() instanceof ShardRoutingDataSource shards) {
+            for (int i = 1; i < shards.total(); i++) {
+                shardsExtras.add(shards.shard(i));
+            }
+        }
+        return new SchemaMigrator(dataSource, localizacao, shardsExtras, localizacaoShards);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (AutoCloseable recurso : recursos) {
+            recurso.close();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.tickets.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Transações readOnly vão para as réplicas em round-robin; o resto vai para o primário. Réplica que
+// falha ao entregar conexão sai do rodízio até a próxima verificação de saúde passar, e sem réplica
+// saudável a leitura cai no primário. Precisa estar atrás de um LazyConnectionDataSourceProxy, senão a
+// conexão é pedida antes de a transação marcar readOnly.
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicIntegerArray saudavel;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final ScheduledExecutorService verificador;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration intervaloVerificacao) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.saudavel = new AtomicIntegerArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            saudavel.set(i, 1);
+        }
+        this.verificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalo = intervaloVerificacao.toMillis();
+        verificador.scheduleWithFixedDelay(this::verificarReplicas, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conectar(DataSource::getConnection);
+    }
+
+    // Mesma rota; quem decide se aceita credenciais por conexão é o pool de destino.
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conectar(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    public int replicasSaudaveis() {
+        int total = 0;
+        for (int i = 0; i < saudavel.length(); i++) {
+            total += saudavel.get(i);
+        }
+        return total;
+    }
+
+    private Connection conectar(Conexao conexao) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return conexao.abrir(primary);
+        }
+        int total = replicas.size();
+        int inicio = Math.floorMod(proxima.getAndIncrement(), total);
+        for (int i = 0; i < total; i++) {
+            int indice = (inicio + i) % total;
+            if (saudavel.get(indice) == 1) {
+                try {
+                    return conexao.abrir(replicas.get(indice));
+                } catch (SQLException e) {
+                    saudavel.set(indice, 0);
+                    logger.warn("Réplica {} indisponível, leituras voltam para o primário: {}", indice, e.getMessage());
+                }
+            }
+        }
+        return conexao.abrir(primary);
+    }
+
+    void verificarReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean ok;
+            try (Connection connection = replicas.get(i).getConnection()) {
+                ok = connection.isValid(2);
+            } catch (SQLException e) {
+                ok = false;
+            }
+            int anterior = saudavel.getAndSet(i, ok ? 1 : 0);
+            if (anterior == 0 && ok) {
+                logger.info("Réplica {} voltou ao rodízio de leitura.", i);
+            } else if (anterior == 1 && !ok) {
+                logger.warn("Réplica {} falhou na verificação de saúde.", i);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        verificador.shutdownNow();
+    }
+
+    private interface Conexao {
+        Connection abrir(DataSource dataSource) throws SQLException;
+    }
+}
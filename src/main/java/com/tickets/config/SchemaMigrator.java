@@ -0,0 +1,217 @@
+package com.tickets.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Migrações versionadas (db/migration/{vendor}/V<n>__descricao.sql) aplicadas antes do JPA subir;
+// o Hibernate só valida o esquema. Cada versão aplicada fica em schema_version com o checksum do
+// arquivo, e alterar um arquivo já aplicado impede a subida.
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final Pattern ARQUIVO = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String TABELA = "schema_version";
+    private static final int VERSAO_BASELINE = 1;
+
+    private final DataSource dataSource;
+    private final String localizacao;
+    private final List<DataSource> shardsExtras;
+    private final String localizacaoShards;
+
+    record Migracao(int versao, String descricao, Resource arquivo, long checksum) {
+    }
+
+    public SchemaMigrator(DataSource dataSource, String localizacao) {
+        this(dataSource, localizacao, List.of(), null);
+    }
+
+    // Shards extras de pedidos (ShardProperties) recebem só as migrações de localizacaoShards.
+    public SchemaMigrator(DataSource dataSource, String localizacao, List<DataSource> shardsExtras,
+                          String localizacaoShards) {
+        this.dataSource = dataSource;
+        this.localizacao = localizacao;
+        this.shardsExtras = List.copyOf(shardsExtras);
+        this.localizacaoShards = localizacaoShards;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        migrar();
+    }
+
+    // Devolve quantas migrações foram aplicadas nesta execução, somando as shards.
+    public int migrar() throws SQLException {
+        int executadas = migrar(dataSource, localizacao);
+        for (DataSource shard : shardsExtras) {
+            executadas += migrar(shard, localizacaoShards);
+        }
+        return executadas;
+    }
+
+    private int migrar(DataSource dataSource, String localizacao) throws SQLException {
+        long inicio = System.nanoTime();
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(true);
+            String vendor = vendor(conexao);
+            boolean mysql = vendor.equals("mysql");
+            // Duas instâncias subindo juntas: só uma migra, a outra espera e encontra tudo aplicado.
+            if (mysql) {
+                executar(conexao, "select get_lock('tickets_schema_version', 300)");
+            }
+            try {
+                List<Migracao> migracoes = carregar(localizacao.replace("{vendor}", vendor));
+                Map<Integer, Long> aplicadas = aplicadas(conexao);
+                verificarChecksums(migracoes, aplicadas);
+                int executadas = 0;
+                for (Migracao migracao : migracoes) {
+                    if (!aplicadas.containsKey(migracao.versao())) {
+                        aplicar(conexao, migracao);
+                        executadas++;
+                    }
+                }
+                logger.info("Esquema de {} na versão {} ({} migrações aplicadas agora, {} ms).", localizacao,
+                        migracoes.isEmpty() ? 0 : migracoes.get(migracoes.size() - 1).versao(), executadas,
+                        (System.nanoTime() - inicio) / 1_000_000);
+                return executadas;
+            } finally {
+                if (mysql) {
+                    executar(conexao, "select release_lock('tickets_schema_version')");
+                }
+            }
+        }
+    }
+
+    private Map<Integer, Long> aplicadas(Connection conexao) throws SQLException {
+        boolean existia = tabelaExiste(conexao, TABELA);
+        if (!existia) {
+            executar(conexao, "create table " + TABELA + " (version integer not null primary key, "
+                    + "description varchar(200) not null, checksum bigint not null, "
+                    + "installed_on timestamp default current_timestamp not null, execution_ms integer not null)");
+        }
+        Map<Integer, Long> aplicadas = new HashMap<>();
+        try (Statement statement = conexao.createStatement();
+             ResultSet rs = statement.executeQuery("select version, checksum from " + TABELA)) {
+            while (rs.next()) {
+                aplicadas.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        // Banco criado pelo antigo ddl-auto=update: a V1 já está lá.
+        if (!existia && aplicadas.isEmpty() && tabelaExiste(conexao, "users")) {
+            logger.warn("Esquema existente sem {}: registrando baseline na versão {}.", TABELA, VERSAO_BASELINE);
+            registrar(conexao, VERSAO_BASELINE, "<< baseline >>", 0, 0);
+            aplicadas.put(VERSAO_BASELINE, 0L);
+        }
+        return aplicadas;
+    }
+
+    private void verificarChecksums(List<Migracao> migracoes, Map<Integer, Long> aplicadas) {
+        for (Migracao migracao : migracoes) {
+            Long checksum = aplicadas.get(migracao.versao());
+            if (checksum != null && checksum != 0 && checksum != migracao.checksum()) {
+                throw new IllegalStateException("Migração V" + migracao.versao() + " foi alterada depois de aplicada: "
+                        + migracao.arquivo().getFilename());
+            }
+        }
+    }
+
+    private void aplicar(Connection conexao, Migracao migracao) throws SQLException {
+        logger.info("Aplicando migração V{}: {}.", migracao.versao(), migracao.descricao());
+        long inicio = System.nanoTime();
+        ScriptUtils.executeSqlScript(conexao, migracao.arquivo());
+        registrar(conexao, migracao.versao(), migracao.descricao(), migracao.checksum(),
+                (int) ((System.nanoTime() - inicio) / 1_000_000));
+    }
+
+    private static void registrar(Connection conexao, int versao, String descricao, long checksum, int duracaoMs)
+            throws SQLException {
+        try (PreparedStatement insert = conexao.prepareStatement("insert into " + TABELA
+                + " (version, description, checksum, execution_ms) values (?, ?, ?, ?)")) {
+            insert.setInt(1, versao);
+            insert.setString(2, descricao);
+            insert.setLong(3, checksum);
+            insert.setInt(4, duracaoMs);
+            insert.executeUpdate();
+        }
+    }
+
+    static List<Migracao> carregar(String localizacao) {
+        try {
+            List<Migracao> migracoes = new ArrayList<>();
+            for (Resource arquivo : new PathMatchingResourcePatternResolver().getResources(localizacao + "/V*__*.sql")) {
+                Matcher matcher = ARQUIVO.matcher(arquivo.getFilename());
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Nome de migração inválido: " + arquivo.getFilename());
+                }
+                migracoes.add(new Migracao(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                        arquivo, checksum(arquivo)));
+            }
+            migracoes.sort(Comparator.comparingInt(Migracao::versao));
+            return migracoes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long checksum(Resource arquivo) throws IOException {
+        try (InputStream in = arquivo.getInputStream()) {
+            CRC32 crc = new CRC32();
+            crc.update(StreamUtils.copyToByteArray(in));
+            return crc.getValue();
+        }
+    }
+
+    private static String vendor(Connection conexao) throws SQLException {
+        String produto = conexao.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (produto.contains("mysql") || produto.contains("mariadb")) {
+            return "mysql";
+        }
+        if (produto.contains("h2")) {
+            return "h2";
+        }
+        throw new IllegalStateException("Banco sem migrações: " + produto);
+    }
+
+    // Só no schema da conexão: o H2 também tem INFORMATION_SCHEMA.USERS.
+    private static boolean tabelaExiste(Connection conexao, String tabela) throws SQLException {
+        for (String nome : new String[]{tabela, tabela.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet rs = conexao.getMetaData().getTables(conexao.getCatalog(), conexao.getSchema(), nome,
+                    new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void executar(Connection conexao, String sql) throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tickets.config;
+
+import org.springframework.boot.sql.init.dependency.AbstractBeansOfTypeDatabaseInitializerDetector;
+
+import java.util.Set;
+
+// Faz o EntityManagerFactory (e tudo que depende do banco) esperar o SchemaMigrator, como o Boot faz com o Flyway.
+public class SchemaMigratorDatabaseInitializerDetector extends AbstractBeansOfTypeDatabaseInitializerDetector {
+
+    @Override
+    protected Set<Class<?>> getDatabaseInitializerBeanTypes() {
+        return Set.of(SchemaMigrator.class);
+    }
+}
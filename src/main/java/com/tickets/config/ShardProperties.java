@@ -0,0 +1,88 @@
+package com.tickets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "tickets.orders.sharding")
+public class ShardProperties {
+
+    // Bancos extras só com a tabela orders; a shard 0 é sempre o banco principal (spring.datasource.*),
+    // que também guarda users. Vazia = uma shard só. O número de shards entra no id dos pedidos e não
+    // pode mudar sem migrar os dados.
+    private List<Shard> shards = new ArrayList<>();
+
+    // Threads das consultas que vão a todas as shards em paralelo.
+    private int scatterThreads = 8;
+
+    public int total() {
+        return 1 + shards.size();
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getScatterThreads() {
+        return scatterThreads;
+    }
+
+    public void setScatterThreads(int scatterThreads) {
+        this.scatterThreads = scatterThreads;
+    }
+
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 20;
+        private Duration connectionTimeout = Duration.ofSeconds(3);
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.tickets.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Entrega a conexão da shard marcada no thread (OrderShards marca antes de abrir a transação); sem
+// marca, a shard 0, que é o banco principal. Como o ReadWriteRoutingDataSource, precisa estar atrás
+// de um LazyConnectionDataSourceProxy para decidir só no primeiro statement.
+public class ShardRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Integer> SHARD_ATUAL = new ThreadLocal<>();
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    public static int shardAtual() {
+        Integer shard = SHARD_ATUAL.get();
+        return shard != null ? shard : 0;
+    }
+
+    public static <T> T naShard(int shard, Supplier<T> acao) {
+        Integer anterior = SHARD_ATUAL.get();
+        SHARD_ATUAL.set(shard);
+        try {
+            return acao.get();
+        } finally {
+            if (anterior != null) {
+                SHARD_ATUAL.set(anterior);
+            } else {
+                SHARD_ATUAL.remove();
+            }
+        }
+    }
+
+    public int total() {
+        return shards.size();
+    }
+
+    public DataSource shard(int indice) {
+        return shards.get(indice);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return shards.get(shardAtual()).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return shards.get(shardAtual()).getConnection(username, password);
+    }
+}
@@ -0,0 +1,24 @@
+package com.tickets.config;
+
+import com.tickets.sql.CountingStatementInspector;
+import com.tickets.sql.JdbcTimingSessionListener;
+import com.tickets.sql.SqlBudgetProperties;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class SqlBudgetConfig {
+
+    // Sem request HTTP em andamento (jobs, carga dos índices) os dois só repassam.
+    @Bean
+    public HibernatePropertiesCustomizer sqlBudgetHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingSessionListener.class.getName());
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.tickets.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Só existe no modo virtual threads: avisa quando JDBC/Hibernate prende uma virtual thread ao carrier
+// (synchronized ou chamada nativa durante I/O), o que anularia o ganho do modo.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENTO_PINNED = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Counter pinned;
+
+    @Autowired
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${tickets.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.pinned = Counter.builder("tickets.virtual.threads.pinned")
+                .description("Virtual threads presas ao carrier acima do limite configurado")
+                .register(meterRegistry);
+        stream.enable(EVENTO_PINNED).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENTO_PINNED, this::registrar);
+        stream.startAsync();
+        logger.info("Modo virtual threads ativo; monitorando pinning acima de {} ms.", threshold.toMillis());
+    }
+
+    private void registrar(RecordedEvent event) {
+        pinned.increment();
+        logger.warn("Virtual thread presa ao carrier por {} ms em {}", event.getDuration().toMillis(), origem(event));
+    }
+
+    private String origem(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "?";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .filter(frame -> frame.isJavaFrame() && !frame.getMethod().getType().getName().startsWith("java."))
+                .findFirst()
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .orElse("?");
+    }
+
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+}
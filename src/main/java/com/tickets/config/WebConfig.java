@@ -0,0 +1,39 @@
+package com.tickets.config;
+
+import com.tickets.admission.AdmissionControlInterceptor;
+import com.tickets.admission.AdmissionProperties;
+import com.tickets.logging.LogSamplingInterceptor;
+import com.tickets.logging.LogSamplingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties({LogSamplingProperties.class, AdmissionProperties.class})
+public class WebConfig implements WebMvcConfigurer {
+
+    private final LogSamplingInterceptor logSamplingInterceptor;
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final AdmissionProperties admissionProperties;
+
+    @Autowired
+    public WebConfig(LogSamplingInterceptor logSamplingInterceptor,
+                     AdmissionControlInterceptor admissionControlInterceptor,
+                     AdmissionProperties admissionProperties) {
+        this.logSamplingInterceptor = logSamplingInterceptor;
+        this.admissionControlInterceptor = admissionControlInterceptor;
+        this.admissionProperties = admissionProperties;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(logSamplingInterceptor);
+        if (admissionProperties.isEnabled()) {
+            // O feed SSE fica conectado por minutos; o limite dele é tickets.orders.stream.max-subscribers.
+            registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/orders/**", "/users/**")
+                    .excludePathPatterns("/orders/stream");
+        }
+    }
+}
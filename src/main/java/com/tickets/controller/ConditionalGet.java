@@ -0,0 +1,73 @@
+package com.tickets.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// If-None-Match contra o ETag dos contadores de alteração (Etag), checado antes de consultar as linhas.
+// A métrica conta cada GET condicionável, então a razão de 304 sai direto do Prometheus.
+@Component
+public class ConditionalGet {
+
+    public static final String METRICA = "tickets.http.conditional.requests";
+
+    // corpo vazio: 304 se naoModificado, senão 404.
+    public record Leitura<T>(String etag, boolean naoModificado, Optional<T> corpo) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate leitura;
+
+    @Autowired
+    public ConditionalGet(MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.meterRegistry = meterRegistry;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+    }
+
+    // Contadores e corpo na mesma transação de leitura, então na mesma réplica, e os contadores antes: uma
+    // escrita entre os dois só deixa o ETag mais velho que o corpo, e o GET seguinte recebe tudo de novo.
+    // O contrário (ETag novo com corpo velho) prenderia o cliente no corpo velho até a próxima escrita.
+    public <T> Leitura<T> ler(String ifNoneMatch, String endpoint, Supplier<List<Long>> versoes,
+                              Supplier<Optional<T>> corpo) {
+        return leitura.execute(status -> {
+            String etag = Etag.de(versoes.get());
+            if (naoModificado(ifNoneMatch, etag, endpoint)) {
+                return new Leitura<T>(etag, true, Optional.empty());
+            }
+            return new Leitura<>(etag, false, corpo.get());
+        });
+    }
+
+    private boolean naoModificado(String ifNoneMatch, String etag, String endpoint) {
+        boolean naoModificado = ifNoneMatch != null && corresponde(ifNoneMatch, etag);
+        Counter.builder(METRICA)
+                .description("GETs com ETag, separados entre 304 e resposta completa")
+                .tag("endpoint", endpoint)
+                .tag("not_modified", Boolean.toString(naoModificado))
+                .register(meterRegistry)
+                .increment();
+        return naoModificado;
+    }
+
+    // If-None-Match usa comparação fraca (RFC 9110): o prefixo W/ é ignorado.
+    private static boolean corresponde(String ifNoneMatch, String etag) {
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag) || valor.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
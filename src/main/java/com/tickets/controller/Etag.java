@@ -0,0 +1,37 @@
+package com.tickets.controller;
+
+import java.util.List;
+
+// ETag forte dos contadores de alteração das tabelas que a resposta lê (TableVersionService), em FNV-1a
+// de 64 bits. Não depende de estado da instância: qualquer uma gera o mesmo ETag para os mesmos contadores.
+final class Etag {
+
+    private static final long BASE = 0xcbf29ce484222325L;
+    private static final long PRIMO = 0x100000001b3L;
+
+    private long hash = BASE;
+
+    static String de(List<Long> versoes) {
+        Etag etag = new Etag();
+        for (Long versao : versoes) {
+            etag.misturar(versao);
+        }
+        return etag.valor();
+    }
+
+    private String valor() {
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private void misturar(long valor) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            misturarByte((int) valor);
+            valor >>>= 8;
+        }
+    }
+
+    private void misturarByte(int valor) {
+        hash ^= valor & 0xff;
+        hash *= PRIMO;
+    }
+}
@@ -1,18 +1,38 @@
 package com.tickets.controller;
 
 import com.tickets.domain.Order;
+import com.tickets.dto.CursorPage;
+import com.tickets.dto.ItemOrderTotals;
+import com.tickets.dto.OrderBatchResult;
+import com.tickets.dto.OrderDetail;
+import com.tickets.dto.OrderIntakeStatus;
+import com.tickets.dto.OrderSummary;
+import com.tickets.dto.TotalsSort;
+import com.tickets.dto.UserOrderTotals;
+import com.tickets.service.OrderExportService;
+import com.tickets.service.OrderIntakeService;
+import com.tickets.service.LeaderboardService;
 import com.tickets.service.OrderService;
+import com.tickets.service.SearchService;
+import com.tickets.service.TableVersionService;
+import com.tickets.stream.OrderEventBroadcaster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.HashMap;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/orders")
@@ -20,52 +40,177 @@ public class OrderController {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
 
+    private static final int LOTE_MAXIMO = 20_000;
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final ConditionalGet conditionalGet;
+    private final TableVersionService tableVersionService;
+    private final ObjectProvider<OrderIntakeService> orderIntakeService;
+    private final OrderEventBroadcaster orderEventBroadcaster;
+    private final SearchService searchService;
+    private final LeaderboardService leaderboardService;
+    private final Duration retryAfter;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService,
+                           ConditionalGet conditionalGet, TableVersionService tableVersionService,
+                           ObjectProvider<OrderIntakeService> orderIntakeService,
+                           OrderEventBroadcaster orderEventBroadcaster, SearchService searchService,
+                           LeaderboardService leaderboardService,
+                           @Value("${tickets.orders.async-intake.retry-after:1s}") Duration retryAfter) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.conditionalGet = conditionalGet;
+        this.tableVersionService = tableVersionService;
+        this.orderIntakeService = orderIntakeService;
+        this.orderEventBroadcaster = orderEventBroadcaster;
+        this.searchService = searchService;
+        this.leaderboardService = leaderboardService;
+        this.retryAfter = retryAfter;
     }
 
     @GetMapping()
-    public ResponseEntity<List<Order>> listarOrdersSimples() {
-        logger.info("REQUEST RECEIVED: GET /orders");
+    public ResponseEntity<CursorPage<OrderSummary>> listarOrdersSimples(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.LIMITE_PADRAO) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.info("REQUEST RECEIVED: GET /orders - cursor: {}, limit: {}", cursor, limit);
         try {
-            List<Order> orders = orderService.listarTodosOrders();
-            List<Order> ordersSimples = orders.stream()
-                    .map(order -> {
-                        Order orderSimples = new Order();
-                        orderSimples.setId(order.getIdOrder());
-                        orderSimples.setItem(order.getItem());
-                        orderSimples.setQuantity(order.getQuantity());
-                        orderSimples.setValue(order.getValue());
-                        orderSimples.setUser(null);
-                        return orderSimples;
-                    })
-                    .collect(Collectors.toList());
+            ConditionalGet.Leitura<CursorPage<OrderSummary>> leitura = conditionalGet.ler(ifNoneMatch, "/orders",
+                    tableVersionService::versaoDosPedidos,
+                    () -> Optional.of(orderService.listarOrdersPorCursor(cursor, limit)));
+            if (leitura.naoModificado()) {
+                logger.info("RESPONSE SENT: GET /orders - Status: {}", HttpStatus.NOT_MODIFIED);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(leitura.etag()).build();
+            }
             logger.info("RESPONSE SENT: GET /orders - Status: {}", HttpStatus.OK);
-            return ResponseEntity.ok(ordersSimples);
+            return ResponseEntity.ok().eTag(leitura.etag()).body(leitura.corpo().get());
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: GET /orders - Status: {}, Error: {}", HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("REQUEST ERROR: GET /orders - Error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarOrders() {
+        logger.info("REQUEST RECEIVED: GET /orders/export");
+        StreamingResponseBody body = out -> {
+            long linhas = orderExportService.exportarOrders(out);
+            logger.info("RESPONSE SENT: GET /orders/export - Status: {}, Linhas: {}", HttpStatus.OK, linhas);
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> acompanharOrders(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("REQUEST RECEIVED: GET /orders/stream - Last-Event-ID: {}", lastEventId);
+        Optional<SseEmitter> emitter = orderEventBroadcaster.assinar(lastEventId);
+        if (emitter.isEmpty()) {
+            logger.warn("RESPONSE SENT: GET /orders/stream - Status: {}, limite de assinantes atingido", HttpStatus.SERVICE_UNAVAILABLE);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())))
+                    .build();
+        }
+        logger.info("RESPONSE SENT: GET /orders/stream - Status: {}", HttpStatus.OK);
+        return ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "no-cache").body(emitter.get());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<OrderSummary>> buscarOrdersPorItem(@RequestParam String q,
+                                                                  @RequestParam(defaultValue = "20") int limit) {
+        logger.info("REQUEST RECEIVED: GET /orders/search - q: {}, limit: {}", q, limit);
+        try {
+            List<OrderSummary> orders = searchService.buscarOrdersPorItem(q, limit);
+            logger.info("RESPONSE SENT: GET /orders/search - Status: {}", HttpStatus.OK);
+            return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: GET /orders/search - Status: {}, Error: {}", HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("RESPONSE SENT: GET /orders/search - Status: {}, Error: {}", HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())))
+                    .build();
+        } catch (Exception e) {
+            logger.error("REQUEST ERROR: GET /orders/search - Error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Top itens da janela recente (tickets.leaderboard.window), lido da memória.
+    @GetMapping("/top-itens")
+    public ResponseEntity<List<ItemOrderTotals>> topItens(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "QUANTITY") TotalsSort sort) {
+        logger.info("REQUEST RECEIVED: GET /orders/top-itens - limit: {}, sort: {}", limit, sort);
+        try {
+            List<ItemOrderTotals> top = leaderboardService.topItens(sort, limit);
+            logger.info("RESPONSE SENT: GET /orders/top-itens - Status: {}", HttpStatus.OK);
+            return ResponseEntity.ok(top);
+        } catch (Exception e) {
+            logger.error("REQUEST ERROR: GET /orders/top-itens - Error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/totais-por-usuario")
+    public ResponseEntity<List<UserOrderTotals>> totaisPorUsuario(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "REVENUE") TotalsSort sort) {
+        logger.info("REQUEST RECEIVED: GET /orders/totais-por-usuario - page: {}, size: {}, sort: {}", page, size, sort);
+        try {
+            List<UserOrderTotals> totais = orderService.totaisPorUsuario(page, size, sort);
+            logger.info("RESPONSE SENT: GET /orders/totais-por-usuario - Status: {}", HttpStatus.OK);
+            return ResponseEntity.ok(totais);
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: GET /orders/totais-por-usuario - Status: {}, Error: {}", HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("REQUEST ERROR: GET /orders/totais-por-usuario - Error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/totais-por-item")
+    public ResponseEntity<List<ItemOrderTotals>> totaisPorItem(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "REVENUE") TotalsSort sort) {
+        logger.info("REQUEST RECEIVED: GET /orders/totais-por-item - page: {}, size: {}, sort: {}", page, size, sort);
+        try {
+            List<ItemOrderTotals> totais = orderService.totaisPorItem(page, size, sort);
+            logger.info("RESPONSE SENT: GET /orders/totais-por-item - Status: {}", HttpStatus.OK);
+            return ResponseEntity.ok(totais);
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: GET /orders/totais-por-item - Status: {}, Error: {}", HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("REQUEST ERROR: GET /orders/totais-por-item - Error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/detalhe/{id}")
-    public ResponseEntity<?> buscarDetalheOrder(@PathVariable Long id) {
+    public ResponseEntity<OrderDetail> buscarDetalheOrder(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("REQUEST RECEIVED: GET /orders/detalhe/{}", id);
         try {
-            Optional<Order> orderOptional = orderService.buscarOrderComUsuario(id);
-            if (orderOptional.isPresent()) {
-                Map<String, Object> detalhe = new HashMap<>();
-                detalhe.put("idOrder", orderOptional.get().getIdOrder());
-                detalhe.put("item", orderOptional.get().getItem());
-                detalhe.put("quantity", orderOptional.get().getQuantity());
-                detalhe.put("value", orderOptional.get().getValue());
-                detalhe.put("userId", orderOptional.get().getUser().getIdUser());
-                detalhe.put("userName", orderOptional.get().getUser().getName());
-                logger.info("RESPONSE SENT: GET /orders/detalhe/{} - Status: {}, Body: {}", id, HttpStatus.OK, detalhe);
-                return ResponseEntity.ok(detalhe);
+            ConditionalGet.Leitura<OrderDetail> leitura = conditionalGet.ler(ifNoneMatch, "/orders/detalhe/{id}",
+                    () -> tableVersionService.versaoDoPedido(id), () -> orderService.buscarOrderComUsuario(id));
+            if (leitura.naoModificado()) {
+                logger.info("RESPONSE SENT: GET /orders/detalhe/{} - Status: {}", id, HttpStatus.NOT_MODIFIED);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(leitura.etag()).build();
+            } else if (leitura.corpo().isPresent()) {
+                logger.info("RESPONSE SENT: GET /orders/detalhe/{} - Status: {}", id, HttpStatus.OK);
+                logger.debug("RESPONSE BODY: GET /orders/detalhe/{} - {}", id, leitura.corpo().get());
+                return ResponseEntity.ok().eTag(leitura.etag()).body(leitura.corpo().get());
             } else {
                 logger.warn("RESPONSE SENT: GET /orders/detalhe/{} - Status: {}", id, HttpStatus.NOT_FOUND);
                 return ResponseEntity.notFound().build();
@@ -77,51 +222,137 @@ public class OrderController {
     }
 
     @PostMapping
-    public ResponseEntity<Order> criarOrder(@RequestBody Order order) {
-        logger.info("REQUEST RECEIVED: POST /orders - Body: {}", order);
+    public ResponseEntity<?> criarOrder(@RequestBody Order order) {
+        logger.info("REQUEST RECEIVED: POST /orders");
+        logger.debug("REQUEST BODY: POST /orders - {}", order);
+        OrderIntakeService intake = orderIntakeService.getIfAvailable();
+        if (intake != null) {
+            return enfileirarOrder(intake, order);
+        }
         try {
             Order novoOrder = orderService.salvarOrder(order);
-            logger.info("RESPONSE SENT: POST /orders - Status: {}, Body: {}", HttpStatus.CREATED, novoOrder);
+            logger.info("RESPONSE SENT: POST /orders - Status: {}, ID: {}", HttpStatus.CREATED, novoOrder.getIdOrder());
             return new ResponseEntity<>(novoOrder, HttpStatus.CREATED);
         } catch (Exception e) {
-            logger.error("REQUEST ERROR: POST /orders - Error: {}", e.getMessage());
+            logger.error("REQUEST ERROR: POST /orders - Error: {}, Body: {}", e.getMessage(), order);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Modo tickets.orders.async-intake.enabled: 202 com trackingId, consultável em GET /orders/intake/{trackingId}.
+    private ResponseEntity<?> enfileirarOrder(OrderIntakeService intake, Order order) {
+        try {
+            Optional<OrderIntakeStatus> situacao = intake.enfileirar(order);
+            if (situacao.isEmpty()) {
+                logger.warn("RESPONSE SENT: POST /orders - Status: {} (fila cheia)", HttpStatus.TOO_MANY_REQUESTS);
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())))
+                        .build();
+            }
+            String trackingId = situacao.get().trackingId();
+            logger.info("RESPONSE SENT: POST /orders - Status: {}, Tracking: {}", HttpStatus.ACCEPTED, trackingId);
+            return ResponseEntity.accepted().location(URI.create("/orders/intake/" + trackingId)).body(situacao.get());
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: POST /orders - Status: {}, Error: {}", HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("REQUEST ERROR: POST /orders - Error: {}, Body: {}", e.getMessage(), order);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/intake/{trackingId}")
+    public ResponseEntity<OrderIntakeStatus> buscarSituacaoIntake(@PathVariable String trackingId) {
+        logger.info("REQUEST RECEIVED: GET /orders/intake/{}", trackingId);
+        OrderIntakeService intake = orderIntakeService.getIfAvailable();
+        Optional<OrderIntakeStatus> situacao = intake != null ? intake.buscarSituacao(trackingId) : Optional.empty();
+        if (situacao.isPresent()) {
+            logger.info("RESPONSE SENT: GET /orders/intake/{} - Status: {}, Situação: {}",
+                    trackingId, HttpStatus.OK, situacao.get().status());
+            return ResponseEntity.ok(situacao.get());
+        }
+        logger.warn("RESPONSE SENT: GET /orders/intake/{} - Status: {}", trackingId, HttpStatus.NOT_FOUND);
+        return ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResult> criarOrdersEmLote(@RequestBody List<Order> orders) {
+        logger.info("REQUEST RECEIVED: POST /orders/batch - Pedidos: {}", orders.size());
+        if (orders.isEmpty() || orders.size() > LOTE_MAXIMO) {
+            logger.warn("RESPONSE SENT: POST /orders/batch - Status: {}, Pedidos: {}", HttpStatus.BAD_REQUEST, orders.size());
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            OrderBatchResult resultado = orderService.salvarOrdersEmLote(orders);
+            logger.info("RESPONSE SENT: POST /orders/batch - Status: {}, Criados: {}", HttpStatus.CREATED, resultado.created());
+            return new ResponseEntity<>(resultado, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: POST /orders/batch - Status: {}, Error: {}", HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("REQUEST ERROR: POST /orders/batch - Error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // If-Match ou "version" no corpo (VersaoExigida): a atualização só vale se o pedido ainda estiver nessa versão (senão 409).
     @PutMapping("/{id}")
-    public ResponseEntity<Order> atualizarOrder(@PathVariable Long id, @RequestBody Order orderAtualizado) {
-        logger.info("REQUEST RECEIVED: PUT /orders/{} - Body: {}", id, orderAtualizado);
+    public ResponseEntity<Void> atualizarOrder(@PathVariable Long id, @RequestBody Order orderAtualizado,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("REQUEST RECEIVED: PUT /orders/{} - If-Match: {}", id, ifMatch);
+        logger.debug("REQUEST BODY: PUT /orders/{} - {}", id, orderAtualizado);
         try {
-            Order orderSalvo = orderService.atualizarOrder(id, orderAtualizado);
-            if (orderSalvo != null) {
-                logger.info("RESPONSE SENT: PUT /orders/{} - Status: {}, Body: {}", id, HttpStatus.OK, orderSalvo);
-                return ResponseEntity.ok(orderSalvo);
+            orderAtualizado.setVersion(VersaoExigida.resolver(ifMatch, orderAtualizado.getVersion()));
+            if (orderAtualizado.getVersion() == null) {
+                logger.warn("RESPONSE SENT: PUT /orders/{} - Status: {} (sem If-Match nem version)", id, HttpStatus.PRECONDITION_REQUIRED);
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+            }
+            if (orderService.atualizarOrder(id, orderAtualizado)) {
+                logger.info("RESPONSE SENT: PUT /orders/{} - Status: {}", id, HttpStatus.NO_CONTENT);
+                return ResponseEntity.noContent().build();
             } else {
                 logger.warn("RESPONSE SENT: PUT /orders/{} - Status: {}", id, HttpStatus.NOT_FOUND);
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("RESPONSE SENT: PUT /orders/{} - Status: {} (versão {} desatualizada)",
+                    id, HttpStatus.CONFLICT, orderAtualizado.getVersion());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: PUT /orders/{} - Status: {}, Error: {}", id, HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
-            logger.error("REQUEST ERROR: PUT /orders/{} - Error: {}", id, e.getMessage());
+            logger.error("REQUEST ERROR: PUT /orders/{} - Error: {}, Body: {}", id, e.getMessage(), orderAtualizado);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletarOrder(@PathVariable Long id) {
-        logger.warn("REQUEST RECEIVED: DELETE /orders/{}", id);
+    public ResponseEntity<Void> deletarOrder(@PathVariable Long id, @RequestParam(required = false) Long version,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("REQUEST RECEIVED: DELETE /orders/{} - version: {}, If-Match: {}", id, version, ifMatch);
         try {
-            if (orderService.buscarOrderPorId(id).isPresent()) {
-                orderService.deletarOrder(id);
+            version = VersaoExigida.resolver(ifMatch, version);
+            if (version == null) {
+                logger.warn("RESPONSE SENT: DELETE /orders/{} - Status: {} (sem If-Match nem version)", id, HttpStatus.PRECONDITION_REQUIRED);
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+            }
+            if (orderService.deletarOrder(id, version)) {
                 logger.info("RESPONSE SENT: DELETE /orders/{} - Status: {}", id, HttpStatus.NO_CONTENT);
                 return ResponseEntity.noContent().build();
             } else {
                 logger.warn("RESPONSE SENT: DELETE /orders/{} - Status: {}", id, HttpStatus.NOT_FOUND);
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("RESPONSE SENT: DELETE /orders/{} - Status: {} (versão {} desatualizada)", id, HttpStatus.CONFLICT, version);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: DELETE /orders/{} - Status: {}, Error: {}", id, HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("REQUEST ERROR: DELETE /orders/{} - Error: {}", id, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+}
@@ -2,19 +2,23 @@ package com.tickets.controller;
 
 
 import com.tickets.domain.User;
+import com.tickets.dto.CursorPage;
+import com.tickets.dto.UserDetail;
+import com.tickets.dto.UserSummary;
 import com.tickets.service.OrderService;
+import com.tickets.service.SearchService;
+import com.tickets.service.TableVersionService;
 import com.tickets.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/users")
@@ -24,30 +28,40 @@ public class UserController {
 
     private final UserService userService;
     private final OrderService orderService;
+    private final ConditionalGet conditionalGet;
+    private final TableVersionService tableVersionService;
+    private final SearchService searchService;
 
     @Autowired
-    public UserController(UserService userService, OrderService orderService) {
+    public UserController(UserService userService, OrderService orderService,
+                          ConditionalGet conditionalGet, TableVersionService tableVersionService,
+                          SearchService searchService) {
         this.userService = userService;
         this.orderService = orderService;
+        this.conditionalGet = conditionalGet;
+        this.tableVersionService = tableVersionService;
+        this.searchService = searchService;
     }
 
     @GetMapping()
-    public ResponseEntity<List<User>> listarUsersSimples() {
-        logger.info("REQUEST RECEIVED: GET /users");
+    public ResponseEntity<CursorPage<UserSummary>> listarUsersSimples(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.LIMITE_PADRAO) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.info("REQUEST RECEIVED: GET /users - cursor: {}, limit: {}", cursor, limit);
         try {
-            List<User> users = userService.listarTodosUsers();
-            List<User> usersSimples = users.stream()
-                    .map(user -> {
-                        User userSimples = new User();
-                        userSimples.setIdUser(user.getIdUser());
-                        userSimples.setName(user.getName());
-                        userSimples.setEmail(user.getEmail());
-                        userSimples.setOrders(null);
-                        return userSimples;
-                    })
-                    .collect(Collectors.toList());
+            ConditionalGet.Leitura<CursorPage<UserSummary>> leitura = conditionalGet.ler(ifNoneMatch, "/users",
+                    tableVersionService::versaoDosUsuarios,
+                    () -> Optional.of(userService.listarUsersPorCursor(cursor, limit)));
+            if (leitura.naoModificado()) {
+                logger.info("RESPONSE SENT: GET /users - Status: {}", HttpStatus.NOT_MODIFIED);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(leitura.etag()).build();
+            }
             logger.info("RESPONSE SENT: GET /users - Status: {}", HttpStatus.OK);
-            return ResponseEntity.ok(usersSimples);
+            return ResponseEntity.ok().eTag(leitura.etag()).body(leitura.corpo().get());
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: GET /users - Status: {}, Error: {}", HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("REQUEST ERROR: GET /users - Error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -55,19 +69,39 @@ public class UserController {
     }
 
 
+    @GetMapping("/search")
+    public ResponseEntity<List<UserSummary>> buscarUsersPorPrefixo(@RequestParam String prefix,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        logger.info("REQUEST RECEIVED: GET /users/search - prefix: {}, limit: {}", prefix, limit);
+        try {
+            List<UserSummary> users = searchService.buscarUsersPorPrefixo(prefix, limit);
+            logger.info("RESPONSE SENT: GET /users/search - Status: {}", HttpStatus.OK);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: GET /users/search - Status: {}, Error: {}", HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            logger.warn("RESPONSE SENT: GET /users/search - Status: {}, Error: {}", HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            logger.error("REQUEST ERROR: GET /users/search - Error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/email/{email}")
-    public ResponseEntity<User> buscarUserPorEmail(@PathVariable String email) {
+    public ResponseEntity<UserSummary> buscarUserPorEmail(@PathVariable String email,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("REQUEST RECEIVED: GET /users/email/{}", email);
         try {
-            Optional<User> userOptional = userService.buscarUserPorEmail(email);
-            if (userOptional.isPresent()) {
-                User userSemOrders = new User();
-                userSemOrders.setIdUser(userOptional.get().getIdUser());
-                userSemOrders.setName(userOptional.get().getName());
-                userSemOrders.setEmail(userOptional.get().getEmail());
-                userSemOrders.setOrders(null);
+            ConditionalGet.Leitura<UserSummary> leitura = conditionalGet.ler(ifNoneMatch, "/users/email/{email}",
+                    tableVersionService::versaoDosUsuarios, () -> userService.buscarUserPorEmail(email));
+            if (leitura.naoModificado()) {
+                logger.info("RESPONSE SENT: GET /users/email/{} - Status: {}", email, HttpStatus.NOT_MODIFIED);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(leitura.etag()).build();
+            } else if (leitura.corpo().isPresent()) {
                 logger.info("RESPONSE SENT: GET /users/email/{} - Status: {}", email, HttpStatus.OK);
-                return ResponseEntity.ok(userSemOrders);
+                return ResponseEntity.ok().eTag(leitura.etag()).body(leitura.corpo().get());
             } else {
                 logger.warn("RESPONSE SENT: GET /users/email/{} - Status: {}", email, HttpStatus.NOT_FOUND);
                 return ResponseEntity.notFound().build();
@@ -79,25 +113,18 @@ public class UserController {
     }
 
     @GetMapping("/detalhe-usuario/{id}")
-    public ResponseEntity<?> buscarDetalheUsuarioComOrders(@PathVariable Long id) {
+    public ResponseEntity<UserDetail> buscarDetalheUsuarioComOrders(@PathVariable Long id,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("REQUEST RECEIVED: GET /users/detalhe-usuario/{}", id);
         try {
-            Optional<User> userOptional = userService.buscarUserPorId(id);
-            if (userOptional.isPresent()) {
-                Map<String, Object> detalhe = new HashMap<>();
-                detalhe.put("idUser", userOptional.get().getIdUser());
-                detalhe.put("name", userOptional.get().getName());
-                detalhe.put("orders", userOptional.get().getOrders().stream()
-                        .map(order -> {
-                            Map<String, Object> orderDetalhe = new HashMap<>();
-                            orderDetalhe.put("idOrder", order.getIdOrder());
-                            orderDetalhe.put("item", order.getItem());
-                            orderDetalhe.put("quantity", order.getQuantity());
-                            orderDetalhe.put("value", order.getValue());
-                            return orderDetalhe;
-                        }).collect(Collectors.toList()));
+            ConditionalGet.Leitura<UserDetail> leitura = conditionalGet.ler(ifNoneMatch, "/users/detalhe-usuario/{id}",
+                    () -> tableVersionService.versaoDoUsuarioComPedidos(id), () -> userService.buscarDetalheUsuario(id));
+            if (leitura.naoModificado()) {
+                logger.info("RESPONSE SENT: GET /users/detalhe-usuario/{} - Status: {}", id, HttpStatus.NOT_MODIFIED);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(leitura.etag()).build();
+            } else if (leitura.corpo().isPresent()) {
                 logger.info("RESPONSE SENT: GET /users/detalhe-usuario/{} - Status: {}", id, HttpStatus.OK);
-                return ResponseEntity.ok(detalhe);
+                return ResponseEntity.ok().eTag(leitura.etag()).body(leitura.corpo().get());
             } else {
                 logger.warn("RESPONSE SENT: GET /users/detalhe-usuario/{} - Status: {}", id, HttpStatus.NOT_FOUND);
                 return ResponseEntity.notFound().build();
@@ -111,52 +138,76 @@ public class UserController {
 
     @PostMapping
     public ResponseEntity<User> criarUser(@RequestBody User user) {
-        logger.info("REQUEST RECEIVED: POST /users - Body: {}", user);
+        logger.info("REQUEST RECEIVED: POST /users");
+        logger.debug("REQUEST BODY: POST /users - {}", user);
         try {
             User novoUser = userService.salvarUser(user);
-            logger.info("RESPONSE SENT: POST /users - Status: {}, Body: {}", HttpStatus.CREATED, novoUser);
+            logger.info("RESPONSE SENT: POST /users - Status: {}, ID: {}", HttpStatus.CREATED, novoUser.getIdUser());
             return new ResponseEntity<>(novoUser, HttpStatus.CREATED);
         } catch (Exception e) {
-            logger.error("REQUEST ERROR: POST /users - Error: {}", e.getMessage());
+            logger.error("REQUEST ERROR: POST /users - Error: {}, Body: {}", e.getMessage(), user);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // If-Match ou "version" no corpo (VersaoExigida): a atualização só vale se o usuário ainda estiver nessa versão (senão 409).
     @PutMapping("/{id}")
-    public ResponseEntity<User> atualizarUser(@PathVariable Long id, @RequestBody User userAtualizado) {
-        logger.info("REQUEST RECEIVED: PUT /users/{} - Body: {}", id, userAtualizado);
+    public ResponseEntity<Void> atualizarUser(@PathVariable Long id, @RequestBody User userAtualizado,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("REQUEST RECEIVED: PUT /users/{} - If-Match: {}", id, ifMatch);
+        logger.debug("REQUEST BODY: PUT /users/{} - {}", id, userAtualizado);
         try {
-            Optional<User> userExistente = userService.buscarUserPorId(id);
-            if (userExistente.isPresent()) {
-                userAtualizado.setIdUser(id);
-                User userSalvo = userService.salvarUser(userAtualizado);
-                logger.info("RESPONSE SENT: PUT /users/{} - Status: {}, Body: {}", id, HttpStatus.OK, userSalvo);
-                return ResponseEntity.ok(userSalvo);
+            userAtualizado.setVersion(VersaoExigida.resolver(ifMatch, userAtualizado.getVersion()));
+            if (userAtualizado.getVersion() == null) {
+                logger.warn("RESPONSE SENT: PUT /users/{} - Status: {} (sem If-Match nem version)", id, HttpStatus.PRECONDITION_REQUIRED);
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+            }
+            if (userService.atualizarUser(id, userAtualizado)) {
+                logger.info("RESPONSE SENT: PUT /users/{} - Status: {}", id, HttpStatus.NO_CONTENT);
+                return ResponseEntity.noContent().build();
             } else {
                 logger.warn("RESPONSE SENT: PUT /users/{} - Status: {}", id, HttpStatus.NOT_FOUND);
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("RESPONSE SENT: PUT /users/{} - Status: {} (versão {} desatualizada)",
+                    id, HttpStatus.CONFLICT, userAtualizado.getVersion());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: PUT /users/{} - Status: {}, Error: {}", id, HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
-            logger.error("REQUEST ERROR: PUT /users/{} - Error: {}", id, e.getMessage());
+            logger.error("REQUEST ERROR: PUT /users/{} - Error: {}, Body: {}", id, e.getMessage(), userAtualizado);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletarUser(@PathVariable Long id) {
-        logger.warn("REQUEST RECEIVED: DELETE /users/{}", id);
+    public ResponseEntity<Void> deletarUser(@PathVariable Long id, @RequestParam(required = false) Long version,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("REQUEST RECEIVED: DELETE /users/{} - version: {}, If-Match: {}", id, version, ifMatch);
         try {
-            if (userService.buscarUserPorId(id).isPresent()) {
-                userService.deletarUser(id);
+            version = VersaoExigida.resolver(ifMatch, version);
+            if (version == null) {
+                logger.warn("RESPONSE SENT: DELETE /users/{} - Status: {} (sem If-Match nem version)", id, HttpStatus.PRECONDITION_REQUIRED);
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+            }
+            if (userService.deletarUser(id, version)) {
                 logger.info("RESPONSE SENT: DELETE /users/{} - Status: {}", id, HttpStatus.NO_CONTENT);
                 return ResponseEntity.noContent().build();
             } else {
                 logger.warn("RESPONSE SENT: DELETE /users/{} - Status: {}", id, HttpStatus.NOT_FOUND);
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("RESPONSE SENT: DELETE /users/{} - Status: {} (versão {} desatualizada)", id, HttpStatus.CONFLICT, version);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("RESPONSE SENT: DELETE /users/{} - Status: {}, Error: {}", id, HttpStatus.BAD_REQUEST, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("REQUEST ERROR: DELETE /users/{} - Error: {}", id, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.tickets.controller;
+
+// Versão esperada de PUT e DELETE: header If-Match ("3" ou 3) ou o campo/parâmetro version. Uma das duas
+// é obrigatória (428 sem nenhuma); escrita às cegas sobrescreveria alteração que o cliente não viu.
+final class VersaoExigida {
+
+    private VersaoExigida() {
+    }
+
+    // null quando nenhuma das duas veio; IllegalArgumentException se o If-Match não é uma versão ou diverge.
+    static Long resolver(String ifMatch, Long version) {
+        if (ifMatch == null) {
+            return version;
+        }
+        String valor = ifMatch.trim();
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+        long doHeader;
+        try {
+            doHeader = Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match deve conter a versão do registro: " + ifMatch);
+        }
+        if (version != null && version != doHeader) {
+            throw new IllegalArgumentException("If-Match " + ifMatch + " diverge da version " + version + ".");
+        }
+        return doHeader;
+    }
+}
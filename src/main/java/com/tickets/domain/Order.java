@@ -1,14 +1,19 @@
 package com.tickets.domain;
 
 
+import com.tickets.shard.ShardedSequence;
 import jakarta.persistence.*;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "orders")
 public class Order {
 
+    // IDENTITY impede o batch de INSERT no Hibernate; o gerador pooled reserva 50 ids por ida ao banco,
+    // da sequence da shard do pedido.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedSequence(sequenceName = "orders_seq", allocationSize = 50)
     private Long idOrder;
 
     @Column(nullable = false)
@@ -18,10 +23,20 @@ public class Order {
 
     private Double value;
 
-    @ManyToOne
+    // users fica só na shard 0: o usuário nunca é carregado junto com o pedido, só o user_id é lido.
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Momento da venda, usado pelo ranking da última hora; nunca vem do corpo da requisição.
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    // PUT/DELETE que mandam a versão lida só afetam a linha se ninguém a alterou depois.
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Long getIdOrder() {
         return idOrder;
     }
@@ -61,4 +76,27 @@ public class Order {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @PrePersist
+    void registrarCriacao() {
+        this.createdAt = Instant.now();
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "Order{idOrder=" + idOrder + ", item='" + item + "', quantity=" + quantity + ", value=" + value
+                + ", version=" + version + ", userId=" + (user != null ? user.getIdUser() : null) + "}";
+    }
 }
\ No newline at end of file
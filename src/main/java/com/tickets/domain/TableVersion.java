@@ -0,0 +1,28 @@
+package com.tickets.domain;
+
+import jakarta.persistence.*;
+
+// Contador de alterações de uma tabela, incrementado na mesma transação de cada escrita nela. Os GETs
+// condicionais tiram o ETag daqui, antes de consultar as linhas.
+@Entity
+@Table(name = "table_versions")
+public class TableVersion {
+
+    public static final String USERS = "users";
+    public static final String ORDERS = "orders";
+
+    @Id
+    @Column(name = "table_name")
+    private String tableName;
+
+    @Column(nullable = false)
+    private Long version;
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
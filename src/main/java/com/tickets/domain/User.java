@@ -1,5 +1,6 @@
 package com.tickets.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.util.List;
@@ -19,7 +20,13 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @JsonIgnore
     @OneToMany(mappedBy = "user")
+    @OrderBy("idOrder")
     private List<Order> orders;
 
     public Long getIdUser() {
@@ -46,6 +53,14 @@ public class User {
         this.email = email;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<Order> getOrders() {
         return orders;
     }
@@ -53,4 +68,9 @@ public class User {
     public void setOrders(List<Order> orders) {
         this.orders = orders;
     }
+
+    @Override
+    public String toString() {
+        return "User{idUser=" + idUser + ", name='" + name + "', email='" + email + "', version=" + version + "}";
+    }
 }
\ No newline at end of file
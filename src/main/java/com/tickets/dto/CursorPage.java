@@ -0,0 +1,48 @@
+package com.tickets.dto;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Recebe até limite + 1 linhas: a linha extra só indica que existe uma próxima página.
+    public static <T> CursorPage<T> of(List<T> linhas, int limite, Function<T, Long> id) {
+        if (linhas.size() <= limite) {
+            return new CursorPage<>(linhas, null);
+        }
+        List<T> pagina = linhas.subList(0, limite);
+        return new CursorPage<>(pagina, encode(id.apply(pagina.get(limite - 1))));
+    }
+
+    public static int normalizarLimite(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    public static String encode(long ultimoId) {
+        return ENCODER.encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(ultimoId).array());
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        byte[] bytes;
+        try {
+            bytes = DECODER.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+}
@@ -0,0 +1,4 @@
+package com.tickets.dto;
+
+public record ItemOrderTotals(String item, Long orders, Long totalQuantity, Double revenue) {
+}
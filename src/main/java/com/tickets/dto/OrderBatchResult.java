@@ -0,0 +1,6 @@
+package com.tickets.dto;
+
+import java.util.List;
+
+public record OrderBatchResult(int created, List<Long> ids) {
+}
@@ -0,0 +1,5 @@
+package com.tickets.dto;
+
+public record OrderDetail(Long idOrder, String item, Integer quantity, Double value, Long userId, String userName,
+                          Long version) {
+}
@@ -0,0 +1,16 @@
+package com.tickets.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Evento do feed /orders/stream. Campos ausentes não são serializados: DELETED só leva o id.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderEvent(Type type, Long idOrder, String item, Integer quantity, Double value, Long userId) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static OrderEvent deleted(Long idOrder) {
+        return new OrderEvent(Type.DELETED, idOrder, null, null, null, null);
+    }
+}
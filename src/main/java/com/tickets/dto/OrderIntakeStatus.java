@@ -0,0 +1,12 @@
+package com.tickets.dto;
+
+public record OrderIntakeStatus(String trackingId, Status status, Long idOrder, String erro) {
+
+    public enum Status {
+        PENDING, CREATED, FAILED
+    }
+
+    public static OrderIntakeStatus pendente(String trackingId) {
+        return new OrderIntakeStatus(trackingId, Status.PENDING, null, null);
+    }
+}
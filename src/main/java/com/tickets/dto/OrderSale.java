@@ -0,0 +1,6 @@
+package com.tickets.dto;
+
+import java.time.Instant;
+
+public record OrderSale(Long idOrder, String item, Integer quantity, Double value, Instant createdAt, Long version) {
+}
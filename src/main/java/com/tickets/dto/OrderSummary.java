@@ -0,0 +1,4 @@
+package com.tickets.dto;
+
+public record OrderSummary(Long idOrder, String item, Integer quantity, Double value) {
+}
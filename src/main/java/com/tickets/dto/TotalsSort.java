@@ -0,0 +1,31 @@
+package com.tickets.dto;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+
+// Critério do top-N nas agregações; a expressão é a mesma do SELECT, aplicada no ORDER BY do banco.
+// O desempate pela chave do GROUP BY mantém as páginas estáveis entre chamadas.
+public enum TotalsSort {
+    REVENUE("sum(o.quantity * o.value)"),
+    QUANTITY("sum(o.quantity)"),
+    ORDERS("count(o)");
+
+    private final String expressao;
+
+    TotalsSort(String expressao) {
+        this.expressao = expressao;
+    }
+
+    public Sort toSort(String chave) {
+        return JpaSort.unsafe(Sort.Direction.DESC, expressao).and(JpaSort.unsafe(Sort.Direction.ASC, chave));
+    }
+
+    // O mesmo critério em memória, para juntar os totais de várias shards.
+    public double valor(long orders, long quantidade, double receita) {
+        return switch (this) {
+            case REVENUE -> receita;
+            case QUANTITY -> quantidade;
+            case ORDERS -> orders;
+        };
+    }
+}
@@ -0,0 +1,6 @@
+package com.tickets.dto;
+
+import java.util.List;
+
+public record UserDetail(Long idUser, String name, List<OrderSummary> orders) {
+}
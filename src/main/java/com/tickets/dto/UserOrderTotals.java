@@ -0,0 +1,4 @@
+package com.tickets.dto;
+
+public record UserOrderTotals(Long userId, String userName, Long orders, Long totalQuantity, Double revenue) {
+}
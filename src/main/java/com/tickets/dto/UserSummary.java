@@ -0,0 +1,4 @@
+package com.tickets.dto;
+
+public record UserSummary(Long idUser, String name, String email, Long version) {
+}
@@ -0,0 +1,233 @@
+package com.tickets.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.tickets.dto.ItemOrderTotals;
+import com.tickets.dto.OrderDetail;
+import com.tickets.dto.OrderSummary;
+import com.tickets.dto.UserDetail;
+import com.tickets.dto.UserOrderTotals;
+import com.tickets.dto.UserSummary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// Serializers escritos à mão para as projeções das respostas de leitura: cada campo vai direto para o
+// JsonGenerator, sem a introspecção do BeanSerializer nem a busca de serializer por elemento na lista de
+// pedidos do detalhe. O JSON é o mesmo do Jackson padrão (mesmos nomes, mesma ordem, nulls incluídos).
+// Como Module, entra no ObjectMapper do Spring MVC pela autoconfiguração do Jackson.
+@Component
+public class ResponseSerializers extends SimpleModule {
+
+    // Buffer de formatação dos decimais, um por thread (com virtual threads, um por request).
+    private static final ThreadLocal<char[]> DECIMAL = ThreadLocal.withInitial(() -> new char[24]);
+
+    public ResponseSerializers() {
+        super("tickets-response-serializers");
+        addSerializer(OrderSummary.class, new OrderSummarySerializer());
+        addSerializer(OrderDetail.class, new OrderDetailSerializer());
+        addSerializer(UserSummary.class, new UserSummarySerializer());
+        addSerializer(UserDetail.class, new UserDetailSerializer());
+        addSerializer(UserOrderTotals.class, new UserOrderTotalsSerializer());
+        addSerializer(ItemOrderTotals.class, new ItemOrderTotalsSerializer());
+    }
+
+    static final class OrderSummarySerializer extends StdSerializer<OrderSummary> {
+
+        OrderSummarySerializer() {
+            super(OrderSummary.class);
+        }
+
+        @Override
+        public void serialize(OrderSummary order, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            escrever(order, gen);
+        }
+    }
+
+    static final class OrderDetailSerializer extends StdSerializer<OrderDetail> {
+
+        OrderDetailSerializer() {
+            super(OrderDetail.class);
+        }
+
+        @Override
+        public void serialize(OrderDetail order, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            numero(gen, "idOrder", order.idOrder());
+            gen.writeStringField("item", order.item());
+            numero(gen, "quantity", order.quantity());
+            numero(gen, "value", order.value());
+            numero(gen, "userId", order.userId());
+            gen.writeStringField("userName", order.userName());
+            numero(gen, "version", order.version());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class UserSummarySerializer extends StdSerializer<UserSummary> {
+
+        UserSummarySerializer() {
+            super(UserSummary.class);
+        }
+
+        @Override
+        public void serialize(UserSummary user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            numero(gen, "idUser", user.idUser());
+            gen.writeStringField("name", user.name());
+            gen.writeStringField("email", user.email());
+            numero(gen, "version", user.version());
+            gen.writeEndObject();
+        }
+    }
+
+    // Os pedidos do usuário são escritos no mesmo laço, sem passar pelo serializer de List.
+    static final class UserDetailSerializer extends StdSerializer<UserDetail> {
+
+        UserDetailSerializer() {
+            super(UserDetail.class);
+        }
+
+        @Override
+        public void serialize(UserDetail user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            numero(gen, "idUser", user.idUser());
+            gen.writeStringField("name", user.name());
+            if (user.orders() == null) {
+                gen.writeNullField("orders");
+            } else {
+                gen.writeArrayFieldStart("orders");
+                for (OrderSummary order : user.orders()) {
+                    escrever(order, gen);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static final class UserOrderTotalsSerializer extends StdSerializer<UserOrderTotals> {
+
+        UserOrderTotalsSerializer() {
+            super(UserOrderTotals.class);
+        }
+
+        @Override
+        public void serialize(UserOrderTotals totais, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            numero(gen, "userId", totais.userId());
+            gen.writeStringField("userName", totais.userName());
+            numero(gen, "orders", totais.orders());
+            numero(gen, "totalQuantity", totais.totalQuantity());
+            numero(gen, "revenue", totais.revenue());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class ItemOrderTotalsSerializer extends StdSerializer<ItemOrderTotals> {
+
+        ItemOrderTotalsSerializer() {
+            super(ItemOrderTotals.class);
+        }
+
+        @Override
+        public void serialize(ItemOrderTotals totais, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("item", totais.item());
+            numero(gen, "orders", totais.orders());
+            numero(gen, "totalQuantity", totais.totalQuantity());
+            numero(gen, "revenue", totais.revenue());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void escrever(OrderSummary order, JsonGenerator gen) throws IOException {
+        if (order == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        numero(gen, "idOrder", order.idOrder());
+        gen.writeStringField("item", order.item());
+        numero(gen, "quantity", order.quantity());
+        numero(gen, "value", order.value());
+        gen.writeEndObject();
+    }
+
+    // Campos numéricos das projeções são wrappers; null sai como null, como no Jackson padrão.
+    private static void numero(JsonGenerator gen, String campo, Long valor) throws IOException {
+        if (valor == null) {
+            gen.writeNullField(campo);
+        } else {
+            gen.writeNumberField(campo, valor.longValue());
+        }
+    }
+
+    private static void numero(JsonGenerator gen, String campo, Integer valor) throws IOException {
+        if (valor == null) {
+            gen.writeNullField(campo);
+        } else {
+            gen.writeNumberField(campo, valor.intValue());
+        }
+    }
+
+    private static void numero(JsonGenerator gen, String campo, Double valor) throws IOException {
+        if (valor == null) {
+            gen.writeNullField(campo);
+            return;
+        }
+        char[] buffer = DECIMAL.get();
+        int tamanho = formatarDecimal(valor, buffer);
+        if (tamanho < 0) {
+            gen.writeNumberField(campo, valor.doubleValue());
+        } else {
+            gen.writeFieldName(campo);
+            gen.writeNumber(buffer, 0, tamanho);
+        }
+    }
+
+    // O Jackson escreve double com Double.toString, que aloca uma String por número; era quase toda a
+    // alocação das respostas com muitos pedidos. Valores com até duas casas decimais e abaixo de 1e7
+    // (preços e receitas) são formatados aqui com o mesmo texto do Double.toString: a representação
+    // mais curta, com ao menos uma casa ("150.0", "150.5", "0.29"). Devolve -1 para o resto (notação
+    // científica, NaN, -0.0, mais casas), que segue pelo caminho padrão.
+    static int formatarDecimal(double valor, char[] buffer) {
+        if (valor == 0.0 && Double.doubleToRawLongBits(valor) == 0L) {
+            buffer[0] = '0';
+            buffer[1] = '.';
+            buffer[2] = '0';
+            return 3;
+        }
+        double absoluto = Math.abs(valor);
+        if (!(absoluto >= 0.01 && absoluto < 1e7)) {
+            return -1;
+        }
+        long centavos = Math.round(absoluto * 100);
+        if (centavos / 100.0 != absoluto) {
+            return -1;
+        }
+        int posicao = 0;
+        if (valor < 0) {
+            buffer[posicao++] = '-';
+        }
+        long inteiro = centavos / 100;
+        int casas = (int) (centavos % 100);
+        int digitos = 1;
+        for (long resto = inteiro / 10; resto > 0; resto /= 10) {
+            digitos++;
+        }
+        for (int i = posicao + digitos - 1; i >= posicao; i--) {
+            buffer[i] = (char) ('0' + inteiro % 10);
+            inteiro /= 10;
+        }
+        posicao += digitos;
+        buffer[posicao++] = '.';
+        buffer[posicao++] = (char) ('0' + casas / 10);
+        if (casas % 10 != 0) {
+            buffer[posicao++] = (char) ('0' + casas % 10);
+        }
+        return posicao;
+    }
+}
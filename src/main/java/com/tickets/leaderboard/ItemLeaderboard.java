@@ -0,0 +1,239 @@
+package com.tickets.leaderboard;
+
+import com.tickets.dto.ItemOrderTotals;
+import com.tickets.dto.OrderSale;
+import com.tickets.dto.TotalsSort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+
+// Ranking de itens vendidos na janela recente (padrão: última hora), mantido a cada escrita de pedido.
+// A memória é um agregado por item em cada bucket de um minuto, pelo created_at do pedido, mais a venda
+// atual de cada pedido da janela: criação soma no bucket da venda, update troca os valores guardados pelos
+// novos no mesmo bucket e delete desconta os guardados, sem o serviço reler a linha antes da escrita. O
+// bucket que sai da janela devolve o que somou e esquece os seus pedidos. Os totais por item ficam
+// ordenados por critério, então o top-K é lido em O(K).
+@Component
+public class ItemLeaderboard {
+
+    // Venda depois da escrita; delete não tem venda. O update não sabe o created_at (vem nulo): o bucket é o
+    // da venda guardada.
+    public record Alteracao(Long idOrder, OrderSale atual) {
+
+        public static Alteracao gravacao(OrderSale venda) {
+            return new Alteracao(venda.idOrder(), venda);
+        }
+
+        public static Alteracao remocao(Long idOrder) {
+            return new Alteracao(idOrder, null);
+        }
+    }
+
+    private static final class Bucket {
+        final Map<String, Totais> porItem = new HashMap<>();
+        // Pedidos do bucket, inclusive os deletados, para esquecê-los quando o bucket sair da janela.
+        final Set<Long> pedidos = new HashSet<>();
+    }
+
+    private static final class Totais {
+        final String item;
+        long orders;
+        long quantidade;
+        double receita;
+
+        Totais(String item) {
+            this.item = item;
+        }
+    }
+
+    private final long bucketMillis;
+    private final long buckets;
+    private final Map<String, Totais> porItem = new HashMap<>();
+    private final Map<TotalsSort, TreeSet<Totais>> rankings = new EnumMap<>(TotalsSort.class);
+    private final TreeMap<Long, Bucket> porBucket = new TreeMap<>();
+    private final Map<Long, OrderSale> vendas = new HashMap<>();
+    // Deletados ainda na janela: um update anterior ao delete que chegue depois dele não os traz de volta.
+    private final Set<Long> removidos = new HashSet<>();
+
+    @Autowired
+    public ItemLeaderboard(MeterRegistry meterRegistry,
+                           @Value("${tickets.leaderboard.window:1h}") Duration janela,
+                           @Value("${tickets.leaderboard.bucket:1m}") Duration bucket) {
+        this.bucketMillis = bucket.toMillis();
+        this.buckets = Math.max(1, janela.toMillis() / bucketMillis);
+        rankings.put(TotalsSort.REVENUE, new TreeSet<>(ordem(t -> t.receita)));
+        rankings.put(TotalsSort.QUANTITY, new TreeSet<>(ordem(t -> t.quantidade)));
+        rankings.put(TotalsSort.ORDERS, new TreeSet<>(ordem(t -> t.orders)));
+        Gauge.builder("tickets.leaderboard.items", this, ItemLeaderboard::itens)
+                .description("Itens distintos vendidos na janela do ranking")
+                .register(meterRegistry);
+        Gauge.builder("tickets.leaderboard.orders", this, ItemLeaderboard::pedidos)
+                .description("Pedidos dentro da janela do ranking")
+                .register(meterRegistry);
+    }
+
+    // Início do bucket mais antigo ainda na janela: a carga na subida lê desde aqui, para todo bucket
+    // da janela ter todas as vendas que um delete ou update pode vir a descontar.
+    public Instant inicioDaJanela() {
+        return Instant.ofEpochMilli((limite(System.currentTimeMillis()) + 1) * bucketMillis);
+    }
+
+    // Chamado depois do commit de cada escrita de pedido.
+    public void aplicar(List<Alteracao> alteracoes) {
+        aplicar(alteracoes, System.currentTimeMillis());
+    }
+
+    synchronized void aplicar(List<Alteracao> alteracoes, long agora) {
+        expirar(agora);
+        long limite = limite(agora);
+        for (Alteracao alteracao : alteracoes) {
+            if (alteracao.atual() != null) {
+                gravar(alteracao.atual(), limite);
+            } else {
+                remover(alteracao.idOrder());
+            }
+        }
+    }
+
+    // Carga na subida a partir de orders.created_at, antes de o servidor aceitar escritas.
+    public synchronized void carregar(OrderSale venda) {
+        long agora = System.currentTimeMillis();
+        expirar(agora);
+        gravar(venda, limite(agora));
+    }
+
+    public List<ItemOrderTotals> top(TotalsSort criterio, int limite) {
+        return top(criterio, limite, System.currentTimeMillis());
+    }
+
+    synchronized List<ItemOrderTotals> top(TotalsSort criterio, int limite, long agora) {
+        expirar(agora);
+        List<ItemOrderTotals> top = new ArrayList<>(Math.min(limite, porItem.size()));
+        Iterator<Totais> iterator = rankings.get(criterio).iterator();
+        while (iterator.hasNext() && top.size() < limite) {
+            Totais totais = iterator.next();
+            top.add(new ItemOrderTotals(totais.item, totais.orders, totais.quantidade, totais.receita));
+        }
+        return top;
+    }
+
+    // Bucket mais novo já fora da janela.
+    private long limite(long agora) {
+        return agora / bucketMillis - buckets;
+    }
+
+    // Pedido fora da janela (ou sem created_at, gravado antes da coluna existir) não está no ranking:
+    // update e delete dele também não mexem em nada. As escritas chegam depois do commit, em threads
+    // diferentes; uma versão que não é mais nova que a guardada já foi superada e é ignorada.
+    private void gravar(OrderSale venda, long limite) {
+        if (removidos.contains(venda.idOrder())) {
+            return;
+        }
+        OrderSale guardada = vendas.get(venda.idOrder());
+        if (guardada != null) {
+            if (venda.version() == null || guardada.version() == null || venda.version() <= guardada.version()) {
+                return;
+            }
+            venda = new OrderSale(venda.idOrder(), venda.item(), venda.quantity(), venda.value(),
+                    guardada.createdAt(), venda.version());
+            somar(guardada, -1);
+        } else if (venda.createdAt() == null || venda.item() == null || bucket(venda) <= limite) {
+            return;
+        }
+        vendas.put(venda.idOrder(), venda);
+        porBucket.computeIfAbsent(bucket(venda), b -> new Bucket()).pedidos.add(venda.idOrder());
+        somar(venda, 1);
+    }
+
+    private void remover(Long idOrder) {
+        OrderSale guardada = vendas.remove(idOrder);
+        if (guardada != null) {
+            removidos.add(idOrder);
+            somar(guardada, -1);
+        }
+    }
+
+    private void somar(OrderSale venda, int sinal) {
+        long quantidade = venda.quantity() != null ? venda.quantity() : 0;
+        double receita = quantidade * (venda.value() != null ? venda.value() : 0.0);
+        Map<String, Totais> doBucket = porBucket.get(bucket(venda)).porItem;
+        Totais noBucket = doBucket.computeIfAbsent(venda.item(), Totais::new);
+        noBucket.orders += sinal;
+        noBucket.quantidade += sinal * quantidade;
+        noBucket.receita += sinal * receita;
+        if (noBucket.orders <= 0) {
+            doBucket.remove(venda.item());
+        }
+        somarNaJanela(venda.item(), sinal, sinal * quantidade, sinal * receita);
+    }
+
+    private long bucket(OrderSale venda) {
+        return venda.createdAt().toEpochMilli() / bucketMillis;
+    }
+
+    private void expirar(long agora) {
+        long limite = limite(agora);
+        while (!porBucket.isEmpty() && porBucket.firstKey() <= limite) {
+            Bucket bucket = porBucket.pollFirstEntry().getValue();
+            for (Totais noBucket : bucket.porItem.values()) {
+                somarNaJanela(noBucket.item, -noBucket.orders, -noBucket.quantidade, -noBucket.receita);
+            }
+            for (Long idOrder : bucket.pedidos) {
+                vendas.remove(idOrder);
+                removidos.remove(idOrder);
+            }
+        }
+    }
+
+    // Tira o item dos rankings antes de mudar os totais, que fazem parte da ordenação.
+    private void somarNaJanela(String item, long orders, long quantidade, double receita) {
+        Totais totais = porItem.get(item);
+        if (totais == null) {
+            totais = new Totais(item);
+            porItem.put(item, totais);
+        } else {
+            for (TreeSet<Totais> ranking : rankings.values()) {
+                ranking.remove(totais);
+            }
+        }
+        totais.orders += orders;
+        totais.quantidade += quantidade;
+        totais.receita += receita;
+        if (totais.orders <= 0) {
+            porItem.remove(item);
+            return;
+        }
+        for (TreeSet<Totais> ranking : rankings.values()) {
+            ranking.add(totais);
+        }
+    }
+
+    private synchronized int itens() {
+        return porItem.size();
+    }
+
+    private synchronized int pedidos() {
+        return vendas.size();
+    }
+
+    private static Comparator<Totais> ordem(ToDoubleFunction<Totais> criterio) {
+        return Comparator.comparingDouble(criterio).reversed().thenComparing(t -> t.item);
+    }
+}
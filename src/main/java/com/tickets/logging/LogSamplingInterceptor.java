@@ -0,0 +1,35 @@
+package com.tickets.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// A decisão de amostragem é tomada uma vez por request, então as linhas START/END de um mesmo
+// request aparecem juntas ou não aparecem.
+@Component
+public class LogSamplingInterceptor implements HandlerInterceptor {
+
+    private final LogSamplingProperties properties;
+
+    @Autowired
+    public LogSamplingInterceptor(LogSamplingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        double taxa = properties.taxaPara(endpoint);
+        boolean amostrado = taxa >= 1.0 || ThreadLocalRandom.current().nextDouble() < taxa;
+        MDC.put(RequestLoggingFilter.MDC_ENDPOINT, endpoint);
+        MDC.put(RequestLoggingFilter.MDC_SAMPLED, Boolean.toString(amostrado));
+        return true;
+    }
+}
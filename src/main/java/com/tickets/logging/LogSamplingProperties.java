@@ -0,0 +1,36 @@
+package com.tickets.logging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "tickets.logging.sampling")
+public class LogSamplingProperties {
+
+    // Fração dos requests com sucesso cujos logs INFO são mantidos (1.0 = todos).
+    private double defaultRate = 1.0;
+
+    // Taxa por endpoint, no formato "GET /orders/detalhe/{id}".
+    private Map<String, Double> endpoints = new HashMap<>();
+
+    public double taxaPara(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultRate);
+    }
+
+    public double getDefaultRate() {
+        return defaultRate;
+    }
+
+    public void setDefaultRate(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    public Map<String, Double> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Double> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
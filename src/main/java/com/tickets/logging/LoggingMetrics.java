@@ -0,0 +1,34 @@
+package com.tickets.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    static final String APPENDER_ASYNC = "ASYNC";
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tickets.logging.events.dropped", this, m -> MeteredAsyncAppender.descartados())
+                .description("Eventos de log descartados pela fila assíncrona cheia")
+                .register(registry);
+        Gauge.builder("tickets.logging.queue.size", this, LoggingMetrics::eventosNaFila)
+                .description("Eventos de log aguardando escrita na fila assíncrona")
+                .register(registry);
+    }
+
+    private double eventosNaFila() {
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context
+                && context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).getAppender(APPENDER_ASYNC)
+                instanceof MeteredAsyncAppender appender) {
+            return appender.getNumberOfElementsInQueue();
+        }
+        return 0;
+    }
+}
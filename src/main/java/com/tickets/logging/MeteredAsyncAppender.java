@@ -0,0 +1,27 @@
+package com.tickets.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// AsyncAppender com neverBlock que conta o que foi descartado. O contador é estático porque
+// o Logback recria o appender quando o Spring Boot recarrega a configuração.
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DESCARTADOS = new LongAdder();
+
+    public static long descartados() {
+        return DESCARTADOS.sum();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int capacidade = getRemainingCapacity();
+        if (capacidade == 0 || (capacidade < getDiscardingThreshold() && isDiscardable(event))) {
+            DESCARTADOS.increment();
+            return;
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,23 @@
+package com.tickets.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// Roda antes de o evento ser criado: logs INFO/DEBUG da aplicação em requests fora da amostra
+// nem chegam a formatar os argumentos. WARN e ERROR sempre passam.
+public class SampledLogTurboFilter extends TurboFilter {
+
+    private static final String PACOTE_APLICACAO = "com.tickets.";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN) || !logger.getName().startsWith(PACOTE_APLICACAO)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "false".equals(MDC.get(RequestLoggingFilter.MDC_SAMPLED)) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
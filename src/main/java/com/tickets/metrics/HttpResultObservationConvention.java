@@ -0,0 +1,34 @@
+package com.tickets.metrics;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+// Acrescenta a tag "result" (ok / not_found / error) ao http.server.requests, mantendo
+// "outcome" e "status" do Spring como estão.
+@Component
+public class HttpResultObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and("result", resultado(context));
+    }
+
+    private String resultado(ServerRequestObservationContext context) {
+        if (context.getError() != null || context.getResponse() == null) {
+            return Resultado.ERROR;
+        }
+        int status = context.getResponse().getStatus();
+        if (status == 404) {
+            return Resultado.NOT_FOUND;
+        }
+        if (status == 409) {
+            return Resultado.CONFLICT;
+        }
+        if (status == 429) {
+            return Resultado.REJECTED;
+        }
+        return status < 400 ? Resultado.OK : Resultado.ERROR;
+    }
+}
@@ -0,0 +1,16 @@
+package com.tickets.metrics;
+
+// Valores da tag "result" comuns às métricas de HTTP e de service.
+public final class Resultado {
+
+    public static final String OK = "ok";
+    public static final String NOT_FOUND = "not_found";
+    // Versão desatualizada em escrita otimista (409): disputa entre clientes, não falha do servidor.
+    public static final String CONFLICT = "conflict";
+    // 429 de controle de admissão ou fila cheia: carga recusada de propósito, acompanhada à parte.
+    public static final String REJECTED = "rejected";
+    public static final String ERROR = "error";
+
+    private Resultado() {
+    }
+}
@@ -0,0 +1,64 @@
+package com.tickets.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// Mede todo método público dos services, menos os de ciclo de vida (start/stop/isRunning).
+// Histograma e buckets de SLO vêm de management.metrics.distribution.* no application.yml.
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    public static final String METRICA = "tickets.service.duration";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.tickets.service.*.*(..))"
+            + " && !execution(* org.springframework.context.SmartLifecycle.*(..))"
+            + " && !execution(* org.springframework.context.Lifecycle.*(..))"
+            + " && !execution(* org.springframework.context.Phased.*(..))")
+    public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String resultado = Resultado.ERROR;
+        try {
+            Object retorno = joinPoint.proceed();
+            resultado = resultadoDe((MethodSignature) joinPoint.getSignature(), retorno);
+            return retorno;
+        } catch (OptimisticLockingFailureException e) {
+            resultado = Resultado.CONFLICT;
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRICA)
+                    .description("Duração dos métodos de service")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("result", resultado)
+                    .register(meterRegistry));
+        }
+    }
+
+    private String resultadoDe(MethodSignature signature, Object retorno) {
+        if (signature.getReturnType() == void.class) {
+            return Resultado.OK;
+        }
+        if (retorno == null || Boolean.FALSE.equals(retorno)
+                || (retorno instanceof Optional<?> optional && optional.isEmpty())) {
+            return Resultado.NOT_FOUND;
+        }
+        return Resultado.OK;
+    }
+}
@@ -1,9 +1,97 @@
 package com.tickets.repository;
 
 import com.tickets.domain.Order;
+import com.tickets.dto.ItemOrderTotals;
+import com.tickets.dto.OrderDetail;
+import com.tickets.dto.OrderSale;
+import com.tickets.dto.OrderSummary;
+import com.tickets.dto.UserOrderTotals;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-}
\ No newline at end of file
+
+    int EXPORT_FETCH_SIZE = 1000;
+
+    @Query("select new com.tickets.dto.OrderSummary(o.idOrder, o.item, o.quantity, o.value) "
+            + "from Order o where o.idOrder > :cursor order by o.idOrder")
+    List<OrderSummary> findSummariesAfter(@Param("cursor") Long cursor, Limit limit);
+
+    // Nome do usuário fica de fora: users está só na shard 0. Vários ids de uma vez para o BatchLoader.
+    @Query("select new com.tickets.dto.OrderDetail(o.idOrder, o.item, o.quantity, o.value, o.user.idUser, "
+            + "cast(null as String), o.version) from Order o where o.idOrder in :ids")
+    List<OrderDetail> findDetailsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.tickets.dto.OrderSummary(o.idOrder, o.item, o.quantity, o.value) "
+            + "from Order o where o.user.idUser = :userId order by o.idOrder")
+    List<OrderSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    boolean existsByUserIdUser(Long userId);
+
+    // Escritas em uma única instrução, condicionadas à versão que o cliente leu.
+    @Modifying
+    @Query("update Order o set o.item = :item, o.quantity = :quantity, o.value = :value, o.version = o.version + 1 "
+            + "where o.idOrder = :id and o.version = :version")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("item") String item, @Param("quantity") Integer quantity,
+                               @Param("value") Double value, @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from Order o where o.idOrder = :id and o.version = :version")
+    int deleteIfVersionMatches(@Param("id") Long id, @Param("version") Long version);
+
+    // Agregações feitas no banco em uma passada; ordenação e página vêm do Pageable (TotalsSort).
+    // Sem o nome do usuário, que o OrderService busca depois só para a página.
+    @Query("select new com.tickets.dto.UserOrderTotals(o.user.idUser, cast(null as String), count(o), "
+            + "coalesce(sum(o.quantity), 0), coalesce(sum(o.quantity * o.value), 0.0)) "
+            + "from Order o group by o.user.idUser")
+    List<UserOrderTotals> totalsByUser(Pageable pageable);
+
+    @Query("select new com.tickets.dto.ItemOrderTotals(o.item, count(o), "
+            + "coalesce(sum(o.quantity), 0), coalesce(sum(o.quantity * o.value), 0.0)) "
+            + "from Order o group by o.item")
+    List<ItemOrderTotals> totalsByItem(Pageable pageable);
+
+    // Cursor forward-only no MySQL (useCursorFetch=true): o driver busca EXPORT_FETCH_SIZE linhas por vez.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select o from Order o order by o.idOrder")
+    Stream<Order> streamAllOrderByIdOrder();
+
+    // Carga do índice de busca: só projeção, nada entra no contexto de persistência.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select new com.tickets.dto.OrderSummary(o.idOrder, o.item, o.quantity, o.value) from Order o")
+    Stream<OrderSummary> streamAllSummaries();
+
+    // Carga do ranking de itens na subida: só os pedidos da janela, pelo índice de created_at.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select new com.tickets.dto.OrderSale(o.idOrder, o.item, o.quantity, o.value, o.createdAt, o.version) "
+            + "from Order o where o.createdAt >= :desde")
+    Stream<OrderSale> streamSalesSince(@Param("desde") Instant desde);
+
+    @Query("select new com.tickets.dto.OrderSummary(o.idOrder, o.item, o.quantity, o.value) "
+            + "from Order o where o.idOrder in :ids")
+    List<OrderSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,22 @@
+package com.tickets.repository;
+
+import com.tickets.domain.TableVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface TableVersionRepository extends JpaRepository<TableVersion, String> {
+
+    @Modifying
+    @Query("update TableVersion t set t.version = t.version + 1 where t.tableName = :tableName")
+    int increment(@Param("tableName") String tableName);
+
+    // Os contadores só crescem, então a soma muda sempre que qualquer um deles muda.
+    @Query("select coalesce(sum(t.version), 0) from TableVersion t where t.tableName in :tableNames")
+    long sumVersions(@Param("tableNames") Collection<String> tableNames);
+}
@@ -1,12 +1,53 @@
 package com.tickets.repository;
 
 import com.tickets.domain.User;
+import com.tickets.dto.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+    @Query("select new com.tickets.dto.UserSummary(u.idUser, u.name, u.email, u.version) "
+            + "from User u where u.idUser > :cursor order by u.idUser")
+    List<UserSummary> findSummariesAfter(@Param("cursor") Long cursor, Limit limit);
+
+    @Query("select new com.tickets.dto.UserSummary(u.idUser, u.name, u.email, u.version) from User u where u.email in :emails")
+    List<UserSummary> findSummariesByEmails(@Param("emails") Collection<String> emails);
+
+    // Escritas em uma única instrução, condicionadas à versão que o cliente leu.
+    @Modifying
+    @Query("update User u set u.name = :name, u.email = :email, u.version = u.version + 1 "
+            + "where u.idUser = :id and u.version = :version")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("name") String name, @Param("email") String email,
+                               @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from User u where u.idUser = :id and u.version = :version")
+    int deleteIfVersionMatches(@Param("id") Long id, @Param("version") Long version);
+
+    @Query("select new com.tickets.dto.UserSummary(u.idUser, u.name, u.email, u.version) from User u where u.idUser in :ids")
+    List<UserSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Carga do índice de busca: só projeção, nada entra no contexto de persistência.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + OrderRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select new com.tickets.dto.UserSummary(u.idUser, u.name, u.email, u.version) from User u")
+    Stream<UserSummary> streamAllSummaries();
+
+    @Query("select u.idUser from User u where u.idUser in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,92 @@
+package com.tickets.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Token -> ids ordenados. Só cresce: update e delete deixam entradas velhas, que a busca descarta
+// ao conferir no banco e a próxima reconstrução remove.
+final class InvertedIndex {
+
+    // String do token (compact string latin1), entrada do HashMap e o objeto SortedIds.
+    private static final int BYTES_POR_TOKEN = 40 + 36;
+
+    private final Map<String, SortedIds> porToken = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long bytes;
+
+    void adicionar(long id, String texto) {
+        List<String> tokens = Tokenizador.tokens(texto);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long total = bytes;
+            for (String token : tokens) {
+                SortedIds ids = porToken.get(token);
+                if (ids == null) {
+                    ids = new SortedIds();
+                    porToken.put(token, ids);
+                    total += BYTES_POR_TOKEN + token.length() + ids.bytesIniciais();
+                }
+                total += ids.adicionar(id);
+            }
+            bytes = total;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids menores que antesDe com todos os tokens, do maior para o menor. Percorre a lista mais
+    // curta e confere as demais por busca binária.
+    long[] buscar(List<String> tokens, long antesDe, int limite) {
+        lock.readLock().lock();
+        try {
+            SortedIds[] listas = new SortedIds[tokens.size()];
+            for (int i = 0; i < listas.length; i++) {
+                listas[i] = porToken.get(tokens.get(i));
+                if (listas[i] == null) {
+                    return new long[0];
+                }
+            }
+            Arrays.sort(listas, Comparator.comparingInt(SortedIds::tamanho));
+            long[] resultado = new long[Math.min(limite, listas[0].tamanho())];
+            int encontrados = 0;
+            for (int i = listas[0].inicioDe(antesDe) - 1; i >= 0 && encontrados < resultado.length; i--) {
+                long id = listas[0].get(i);
+                if (contidoEmTodas(listas, id)) {
+                    resultado[encontrados++] = id;
+                }
+            }
+            return encontrados == resultado.length ? resultado : Arrays.copyOf(resultado, encontrados);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean contidoEmTodas(SortedIds[] listas, long id) {
+        for (int j = 1; j < listas.length; j++) {
+            if (!listas[j].contem(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int tokens() {
+        lock.readLock().lock();
+        try {
+            return porToken.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long bytesEstimados() {
+        return bytes;
+    }
+}
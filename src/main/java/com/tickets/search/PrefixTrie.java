@@ -0,0 +1,156 @@
+package com.tickets.search;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Trie compactada (radix): cada aresta guarda um trecho da chave, então emails únicos viram um nó
+// por divergência e não um nó por caractere. Como o InvertedIndex, só cresce até a próxima reconstrução.
+final class PrefixTrie {
+
+    private static final int BYTES_NO = 32;
+    private static final No[] SEM_FILHOS = new No[0];
+
+    private static final class No {
+        String rotulo;
+        No[] filhos = SEM_FILHOS;
+        SortedIds ids;
+
+        No(String rotulo) {
+            this.rotulo = rotulo;
+        }
+    }
+
+    private final No raiz = new No("");
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long bytes;
+    private volatile int chaves;
+
+    void adicionar(long id, String chave) {
+        if (chave.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long total = bytes;
+            No no = raiz;
+            int posicao = 0;
+            while (posicao < chave.length()) {
+                int indice = indiceDoFilho(no, chave.charAt(posicao));
+                if (indice < 0) {
+                    No folha = new No(chave.substring(posicao));
+                    inserirFilho(no, -indice - 1, folha);
+                    total += BYTES_NO + 40 + folha.rotulo.length() + 4;
+                    no = folha;
+                    break;
+                }
+                No filho = no.filhos[indice];
+                int comum = prefixoComum(filho.rotulo, chave, posicao);
+                if (comum < filho.rotulo.length()) {
+                    // Divide a aresta: o trecho comum vira um nó intermediário.
+                    No meio = new No(filho.rotulo.substring(0, comum));
+                    filho.rotulo = filho.rotulo.substring(comum);
+                    meio.filhos = new No[]{filho};
+                    no.filhos[indice] = meio;
+                    total += BYTES_NO + 40 + meio.rotulo.length() + 16 + 4;
+                    filho = meio;
+                }
+                no = filho;
+                posicao += comum;
+            }
+            if (no.ids == null) {
+                no.ids = new SortedIds();
+                total += no.ids.bytesIniciais();
+                chaves++;
+            }
+            bytes = total + no.ids.adicionar(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long[] buscar(String prefixo, int limite) {
+        return buscar(prefixo, 0, limite);
+    }
+
+    // Ids distintos de chaves que começam com o prefixo, em ordem alfabética da chave, pulando os
+    // primeiros. Quem precisa de mais candidatos chama de novo com pular = quantos já recebeu.
+    long[] buscar(String prefixo, int pular, int limite) {
+        lock.readLock().lock();
+        try {
+            No no = raiz;
+            int posicao = 0;
+            while (posicao < prefixo.length()) {
+                int indice = indiceDoFilho(no, prefixo.charAt(posicao));
+                if (indice < 0) {
+                    return new long[0];
+                }
+                No filho = no.filhos[indice];
+                int comum = prefixoComum(filho.rotulo, prefixo, posicao);
+                if (posicao + comum < prefixo.length() && comum < filho.rotulo.length()) {
+                    return new long[0];
+                }
+                no = filho;
+                posicao += comum;
+            }
+            Set<Long> encontrados = new LinkedHashSet<>();
+            coletar(no, pular + limite, encontrados);
+            return encontrados.stream().skip(pular).mapToLong(Long::longValue).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void coletar(No no, int limite, Set<Long> encontrados) {
+        if (no.ids != null) {
+            for (int i = 0; i < no.ids.tamanho() && encontrados.size() < limite; i++) {
+                encontrados.add(no.ids.get(i));
+            }
+        }
+        for (int i = 0; i < no.filhos.length && encontrados.size() < limite; i++) {
+            coletar(no.filhos[i], limite, encontrados);
+        }
+    }
+
+    private static int indiceDoFilho(No no, char c) {
+        int baixo = 0;
+        int alto = no.filhos.length - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            char atual = no.filhos[meio].rotulo.charAt(0);
+            if (atual < c) {
+                baixo = meio + 1;
+            } else if (atual > c) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -baixo - 1;
+    }
+
+    private static void inserirFilho(No no, int posicao, No filho) {
+        No[] filhos = Arrays.copyOf(no.filhos, no.filhos.length + 1);
+        System.arraycopy(filhos, posicao, filhos, posicao + 1, no.filhos.length - posicao);
+        filhos[posicao] = filho;
+        no.filhos = filhos;
+    }
+
+    private static int prefixoComum(String rotulo, String chave, int inicio) {
+        int maximo = Math.min(rotulo.length(), chave.length() - inicio);
+        int i = 0;
+        while (i < maximo && rotulo.charAt(i) == chave.charAt(inicio + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    int chaves() {
+        return chaves;
+    }
+
+    long bytesEstimados() {
+        return bytes;
+    }
+}
@@ -0,0 +1,159 @@
+package com.tickets.search;
+
+import com.tickets.dto.OrderEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Índices em memória de GET /orders/search (tokens de item) e GET /users/search (prefixo de nome e email).
+// Devolvem só candidatos: quem busca confere cada id no banco, o que cobre entradas que ficaram
+// para trás depois de update ou delete.
+@Component
+public class SearchIndex {
+
+    private volatile InvertedIndex itens = new InvertedIndex();
+    private volatile PrefixTrie usuarios = new PrefixTrie();
+    private volatile Reconstrucao emAndamento;
+    private volatile boolean pronto;
+    private final AtomicLong obsoletos = new AtomicLong();
+    private final AtomicLong registros = new AtomicLong();
+
+    // Índices novos sendo montados a partir do banco. Enquanto existem, as escritas vão para os dois lados.
+    public final class Reconstrucao {
+        private final InvertedIndex itens = new InvertedIndex();
+        private final PrefixTrie usuarios = new PrefixTrie();
+        private final AtomicLong registros = new AtomicLong();
+
+        public void order(long id, String item) {
+            itens.adicionar(id, item);
+            registros.incrementAndGet();
+        }
+
+        public void user(long id, String name, String email) {
+            indexarUser(usuarios, id, name, email);
+            registros.incrementAndGet();
+        }
+    }
+
+    @Autowired
+    public SearchIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("tickets.search.index.memory", this, s -> s.itens.bytesEstimados())
+                .description("Memória estimada do índice")
+                .baseUnit("bytes")
+                .tag("index", "orders_item")
+                .register(meterRegistry);
+        Gauge.builder("tickets.search.index.memory", this, s -> s.usuarios.bytesEstimados())
+                .description("Memória estimada do índice")
+                .baseUnit("bytes")
+                .tag("index", "users_prefix")
+                .register(meterRegistry);
+        Gauge.builder("tickets.search.index.keys", this, s -> s.itens.tokens())
+                .description("Chaves distintas no índice")
+                .tag("index", "orders_item")
+                .register(meterRegistry);
+        Gauge.builder("tickets.search.index.keys", this, s -> s.usuarios.chaves())
+                .description("Chaves distintas no índice")
+                .tag("index", "users_prefix")
+                .register(meterRegistry);
+        Gauge.builder("tickets.search.index.stale", obsoletos, AtomicLong::get)
+                .description("Updates e deletes desde a última reconstrução")
+                .register(meterRegistry);
+    }
+
+    // Chamado depois do commit, com os mesmos eventos do feed /orders/stream.
+    public void aplicar(List<OrderEvent> eventos) {
+        Reconstrucao reconstrucao = emAndamento;
+        for (OrderEvent evento : eventos) {
+            if (evento.type() != OrderEvent.Type.CREATED) {
+                obsoletos.incrementAndGet();
+            }
+            if (evento.type() != OrderEvent.Type.DELETED && evento.item() != null) {
+                itens.adicionar(evento.idOrder(), evento.item());
+                registros.incrementAndGet();
+                if (reconstrucao != null) {
+                    reconstrucao.order(evento.idOrder(), evento.item());
+                }
+            }
+        }
+    }
+
+    public void indexarUser(long id, String name, String email) {
+        // Lê emAndamento antes do índice atual: concluir() troca o índice antes de limpar emAndamento.
+        Reconstrucao reconstrucao = emAndamento;
+        indexarUser(usuarios, id, name, email);
+        registros.incrementAndGet();
+        if (reconstrucao != null) {
+            reconstrucao.user(id, name, email);
+        }
+    }
+
+    public void registrarObsoleto() {
+        obsoletos.incrementAndGet();
+    }
+
+    public long[] candidatosOrders(List<String> tokens, long antesDe, int limite) {
+        return itens.buscar(tokens, antesDe, limite);
+    }
+
+    public long[] candidatosUsers(String prefixo, int pular, int limite) {
+        return usuarios.buscar(prefixo, pular, limite);
+    }
+
+    public boolean pronto() {
+        return pronto;
+    }
+
+    public long obsoletos() {
+        return obsoletos.get();
+    }
+
+    // Pedidos e usuários indexados, contando reindexações por update.
+    public long registros() {
+        return registros.get();
+    }
+
+    // Precisa ser chamado antes da primeira leitura da reconstrução: escrita que não passou pelo
+    // emAndamento já estava commitada quando o snapshot começou.
+    public Reconstrucao iniciarReconstrucao() {
+        Reconstrucao reconstrucao = new Reconstrucao();
+        emAndamento = reconstrucao;
+        return reconstrucao;
+    }
+
+    public void concluir(Reconstrucao reconstrucao) {
+        itens = reconstrucao.itens;
+        usuarios = reconstrucao.usuarios;
+        obsoletos.set(0);
+        registros.set(reconstrucao.registros.get());
+        pronto = true;
+        emAndamento = null;
+    }
+
+    public void abortar(Reconstrucao reconstrucao) {
+        if (emAndamento == reconstrucao) {
+            emAndamento = null;
+        }
+    }
+
+    // Chaves de um usuário: nome completo, cada palavra do nome e o email.
+    public static Set<String> chavesUser(String name, String email) {
+        Set<String> chaves = new LinkedHashSet<>();
+        chaves.add(Tokenizador.normalizar(name));
+        chaves.addAll(Tokenizador.tokens(name));
+        chaves.add(Tokenizador.normalizar(email));
+        chaves.remove("");
+        return chaves;
+    }
+
+    private static void indexarUser(PrefixTrie trie, long id, String name, String email) {
+        for (String chave : chavesUser(name, email)) {
+            trie.adicionar(id, chave);
+        }
+    }
+}
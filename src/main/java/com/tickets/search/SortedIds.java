@@ -0,0 +1,59 @@
+package com.tickets.search;
+
+import java.util.Arrays;
+
+// Lista de ids ordenada em long[] (sem boxing). Ids novos quase sempre são maiores que os
+// existentes, então a inserção costuma ser um append.
+final class SortedIds {
+
+    static final int BYTES_OBJETO = 16 + 16;
+
+    private long[] ids = new long[1];
+    private int tamanho;
+
+    // Devolve quantos bytes o array cresceu.
+    long adicionar(long id) {
+        int posicao;
+        if (tamanho == 0 || id > ids[tamanho - 1]) {
+            posicao = tamanho;
+        } else {
+            int busca = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (busca >= 0) {
+                return 0;
+            }
+            posicao = -busca - 1;
+        }
+        long crescimento = 0;
+        if (tamanho == ids.length) {
+            int capacidade = ids.length + (ids.length >> 1) + 1;
+            crescimento = (long) (capacidade - ids.length) * Long.BYTES;
+            ids = Arrays.copyOf(ids, capacidade);
+        }
+        System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+        ids[posicao] = id;
+        tamanho++;
+        return crescimento;
+    }
+
+    boolean contem(long id) {
+        return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    long get(int indice) {
+        return ids[indice];
+    }
+
+    // Índice do primeiro id >= valor.
+    int inicioDe(long valor) {
+        int busca = Arrays.binarySearch(ids, 0, tamanho, valor);
+        return busca >= 0 ? busca : -busca - 1;
+    }
+
+    long bytesIniciais() {
+        return BYTES_OBJETO + (long) ids.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tickets.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Efeitos colaterais de escrita (cache de usuários, índice de busca, ranking de itens e feed SSE) só
+// podem ser vistos depois do commit: antes disso uma leitura concorrente ainda enxerga os dados antigos
+// e os guardaria como novos, e um rollback viraria evento de algo que não aconteceu.
+final class AposCommit {
+
+    private AposCommit() {
+    }
+
+    static void executar(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
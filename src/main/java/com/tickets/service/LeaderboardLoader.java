@@ -0,0 +1,51 @@
+package com.tickets.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+// Recarrega o ranking de itens da janela antes de o servidor web aceitar requests. Se o banco falhar,
+// a aplicação sobe com o ranking vazio, que volta a encher com as vendas novas.
+@Component
+public class LeaderboardLoader implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardLoader.class);
+
+    // Antes do servidor web e da entrada assíncrona de pedidos.
+    private static final int FASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private final LeaderboardService leaderboardService;
+    private volatile boolean rodando;
+
+    @Autowired
+    public LeaderboardLoader(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @Override
+    public void start() {
+        try {
+            leaderboardService.carregarJanela();
+        } catch (Exception e) {
+            logger.error("Ranking de itens iniciado vazio: falha ao carregar a janela do banco.", e);
+        }
+        rodando = true;
+    }
+
+    @Override
+    public void stop() {
+        rodando = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rodando;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+}
@@ -0,0 +1,76 @@
+package com.tickets.service;
+
+import com.tickets.dto.ItemOrderTotals;
+import com.tickets.dto.OrderSale;
+import com.tickets.dto.TotalsSort;
+import com.tickets.leaderboard.ItemLeaderboard;
+import com.tickets.repository.OrderRepository;
+import com.tickets.shard.OrderShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    public static final int LIMITE_MAXIMO = 100;
+
+    private final OrderRepository orderRepository;
+    private final OrderShards orderShards;
+    private final ItemLeaderboard itemLeaderboard;
+
+    @Autowired
+    public LeaderboardService(OrderRepository orderRepository, OrderShards orderShards, ItemLeaderboard itemLeaderboard) {
+        this.orderRepository = orderRepository;
+        this.orderShards = orderShards;
+        this.itemLeaderboard = itemLeaderboard;
+    }
+
+    // Sem banco: o ranking já está em memória.
+    public List<ItemOrderTotals> topItens(TotalsSort criterio, int limite) {
+        logger.info("TRANSACTION START: Top {} itens da janela por {}.", limite, criterio);
+        try {
+            List<ItemOrderTotals> top = itemLeaderboard.top(criterio, Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
+            logger.info("TRANSACTION END: {} itens no ranking.", top.size());
+            return top;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao montar o ranking de itens.", e);
+            throw e;
+        }
+    }
+
+    // Lê do primário, como a carga dos índices de busca: pedido recém-criado ainda fora da réplica ficaria de fora.
+    @Transactional
+    public long carregarJanela() {
+        Instant desde = itemLeaderboard.inicioDaJanela();
+        logger.info("TRANSACTION START: Carregando ranking de itens desde {}.", desde);
+        try {
+            long pedidos = 0;
+            for (int shard = 0; shard < orderShards.total(); shard++) {
+                pedidos += orderShards.executar(shard, false, () -> {
+                    long lidos = 0;
+                    try (Stream<OrderSale> vendas = orderRepository.streamSalesSince(desde)) {
+                        for (OrderSale venda : (Iterable<OrderSale>) vendas::iterator) {
+                            itemLeaderboard.carregar(venda);
+                            lidos++;
+                        }
+                    }
+                    return lidos;
+                });
+            }
+            logger.info("TRANSACTION END: Ranking de itens carregado com {} pedidos.", pedidos);
+            return pedidos;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao carregar o ranking de itens.", e);
+            throw e;
+        }
+    }
+}
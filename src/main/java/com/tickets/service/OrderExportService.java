@@ -0,0 +1,127 @@
+package com.tickets.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tickets.domain.Order;
+import com.tickets.repository.OrderRepository;
+import com.tickets.shard.OrderShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+public class OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderShards orderShards;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Counter linhasExportadas;
+    private final Timer duracaoExportacao;
+    private final DistributionSummary throughputExportacao;
+
+    @Autowired
+    public OrderExportService(OrderRepository orderRepository, OrderShards orderShards, EntityManager entityManager,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderShards = orderShards;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.linhasExportadas = Counter.builder("tickets.orders.export.rows")
+                .description("Pedidos escritos pelo export NDJSON")
+                .register(meterRegistry);
+        this.duracaoExportacao = Timer.builder("tickets.orders.export.duration")
+                .description("Duração de cada export NDJSON completo")
+                .register(meterRegistry);
+        this.throughputExportacao = DistributionSummary.builder("tickets.orders.export.throughput")
+                .description("Vazão de cada export NDJSON")
+                .baseUnit("rows.per.second")
+                .register(meterRegistry);
+    }
+
+    // Uma shard de cada vez, cada uma com o seu cursor: a ordem de id vale dentro de cada shard.
+    @Transactional(readOnly = true)
+    public long exportarOrders(OutputStream out) {
+        logger.info("TRANSACTION START: Exportando todos os pedidos em NDJSON.");
+        long inicio = System.nanoTime();
+        AtomicLong linhas = new AtomicLong();
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.setRootValueSeparator(null);
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (int shard = 0; shard < orderShards.total(); shard++) {
+                orderShards.executar(shard, true, () -> exportarShard(gen, linhas));
+            }
+        } catch (IOException e) {
+            logger.error("TRANSACTION ERROR: Erro ao exportar pedidos após {} linhas.", linhas.get(), e);
+            throw new UncheckedIOException(e);
+        } catch (UncheckedIOException e) {
+            logger.error("TRANSACTION ERROR: Erro ao exportar pedidos após {} linhas.", linhas.get(), e);
+            throw e;
+        } finally {
+            registrarMetricas(linhas.get(), System.nanoTime() - inicio);
+        }
+        logger.info("TRANSACTION END: Export de {} pedidos concluído.", linhas.get());
+        return linhas.get();
+    }
+
+    private Void exportarShard(JsonGenerator gen, AtomicLong linhas) {
+        try (Stream<Order> orders = orderRepository.streamAllOrderByIdOrder()) {
+            var iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                escreverLinha(gen, iterator.next());
+                // Libera o contexto de persistência a cada lote para o heap não crescer com a tabela.
+                if (linhas.incrementAndGet() % OrderRepository.EXPORT_FETCH_SIZE == 0) {
+                    gen.flush();
+                    entityManager.clear();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void escreverLinha(JsonGenerator gen, Order order) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("idOrder", order.getIdOrder());
+        gen.writeStringField("item", order.getItem());
+        if (order.getQuantity() != null) {
+            gen.writeNumberField("quantity", order.getQuantity());
+        } else {
+            gen.writeNullField("quantity");
+        }
+        if (order.getValue() != null) {
+            gen.writeNumberField("value", order.getValue());
+        } else {
+            gen.writeNullField("value");
+        }
+        gen.writeNumberField("userId", order.getUser().getIdUser());
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+
+    private void registrarMetricas(long linhas, long duracaoNanos) {
+        linhasExportadas.increment(linhas);
+        duracaoExportacao.record(duracaoNanos, TimeUnit.NANOSECONDS);
+        if (duracaoNanos > 0) {
+            throughputExportacao.record(linhas * (double) TimeUnit.SECONDS.toNanos(1) / duracaoNanos);
+        }
+    }
+}
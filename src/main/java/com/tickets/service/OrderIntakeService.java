@@ -0,0 +1,240 @@
+package com.tickets.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tickets.domain.Order;
+import com.tickets.dto.OrderBatchResult;
+import com.tickets.dto.OrderIntakeStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Modo opcional de POST /orders: o request só valida e enfileira; threads gravadoras esvaziam a fila
+// em lotes por salvarOrdersEmLote. Fila cheia vira 429 no controller, em vez de threads presas
+// esperando commit no MySQL.
+@Service
+@ConditionalOnProperty(name = "tickets.orders.async-intake.enabled", havingValue = "true")
+public class OrderIntakeService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    // Para depois do servidor web (que para de aceitar requests) e antes do pool de conexões fechar.
+    private static final int FASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long ESPERA_FILA_VAZIA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final OrderService orderService;
+    private final UserService userService;
+    private final RingBuffer<Pedido> fila;
+    private final Cache<String, OrderIntakeStatus> situacoes;
+    private final int gravadores;
+    private final int tamanhoLote;
+    private final Duration tempoMaximoParada;
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicInteger produtoresAtivos = new AtomicInteger();
+
+    private final Counter rejeitados;
+    private final Counter falhas;
+    private final DistributionSummary tamanhoDosLotes;
+    private final Timer atraso;
+
+    private volatile boolean aceitando;
+    private volatile boolean rodando;
+
+    private record Pedido(String trackingId, Order order, long enfileiradoEm) {
+    }
+
+    @Autowired
+    public OrderIntakeService(OrderService orderService, UserService userService, MeterRegistry meterRegistry,
+                              @Value("${tickets.orders.async-intake.capacity:65536}") int capacidade,
+                              @Value("${tickets.orders.async-intake.writers:1}") int gravadores,
+                              @Value("${tickets.orders.async-intake.batch-size:500}") int tamanhoLote,
+                              @Value("${tickets.orders.async-intake.status-ttl:10m}") Duration retencaoSituacao,
+                              @Value("${tickets.orders.async-intake.shutdown-timeout:30s}") Duration tempoMaximoParada) {
+        this.orderService = orderService;
+        this.userService = userService;
+        this.fila = new RingBuffer<>(capacidade);
+        this.situacoes = Caffeine.newBuilder()
+                .maximumSize(4L * fila.capacidade())
+                .expireAfterWrite(retencaoSituacao)
+                .build();
+        this.gravadores = gravadores;
+        this.tamanhoLote = tamanhoLote;
+        this.tempoMaximoParada = tempoMaximoParada;
+
+        Gauge.builder("tickets.orders.intake.queue.size", fila, RingBuffer::tamanho)
+                .description("Pedidos aguardando gravação")
+                .register(meterRegistry);
+        Gauge.builder("tickets.orders.intake.queue.capacity", fila, RingBuffer::capacidade)
+                .register(meterRegistry);
+        this.rejeitados = Counter.builder("tickets.orders.intake.rejected")
+                .description("Pedidos recusados com a fila cheia")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("tickets.orders.intake.failed")
+                .description("Pedidos aceitos que não puderam ser gravados")
+                .register(meterRegistry);
+        this.tamanhoDosLotes = DistributionSummary.builder("tickets.orders.intake.batch.size")
+                .description("Pedidos por lote gravado")
+                .register(meterRegistry);
+        this.atraso = Timer.builder("tickets.orders.intake.lag")
+                .description("Tempo entre o 202 e o commit do pedido")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // IllegalArgumentException para pedido inválido (400); Optional vazio quando a fila está cheia (429).
+    public Optional<OrderIntakeStatus> enfileirar(Order order) {
+        validar(order);
+        produtoresAtivos.incrementAndGet();
+        try {
+            String trackingId = UUID.randomUUID().toString();
+            OrderIntakeStatus pendente = OrderIntakeStatus.pendente(trackingId);
+            situacoes.put(trackingId, pendente);
+            if (aceitando && fila.oferecer(new Pedido(trackingId, order, System.nanoTime()))) {
+                return Optional.of(pendente);
+            }
+            situacoes.invalidate(trackingId);
+            rejeitados.increment();
+            return Optional.empty();
+        } finally {
+            produtoresAtivos.decrementAndGet();
+        }
+    }
+
+    public Optional<OrderIntakeStatus> buscarSituacao(String trackingId) {
+        return Optional.ofNullable(situacoes.getIfPresent(trackingId));
+    }
+
+    // O usuário vem do cache de UserService; só o que passa aqui ocupa espaço na fila.
+    private void validar(Order order) {
+        if (order.getItem() == null || order.getItem().isBlank()) {
+            throw new IllegalArgumentException("Pedido sem item.");
+        }
+        if (order.getUser() == null || order.getUser().getIdUser() == null) {
+            throw new IllegalArgumentException("Pedido sem user.idUser.");
+        }
+        if (userService.buscarUserPorId(order.getUser().getIdUser()).isEmpty()) {
+            throw new IllegalArgumentException("Usuário inexistente: " + order.getUser().getIdUser());
+        }
+    }
+
+    private void gravar() {
+        List<Pedido> lote = new ArrayList<>(tamanhoLote);
+        while (true) {
+            Pedido pedido;
+            while (lote.size() < tamanhoLote && (pedido = fila.retirar()) != null) {
+                lote.add(pedido);
+            }
+            if (lote.isEmpty()) {
+                if (!rodando) {
+                    return;
+                }
+                LockSupport.parkNanos(ESPERA_FILA_VAZIA_NANOS);
+                continue;
+            }
+            gravarLote(lote);
+            lote.clear();
+        }
+    }
+
+    // Se o lote falha (ex.: usuário removido depois da validação), regrava pedido a pedido para que
+    // só os inválidos fiquem como FAILED.
+    private void gravarLote(List<Pedido> lote) {
+        List<Order> orders = new ArrayList<>(lote.size());
+        for (Pedido pedido : lote) {
+            orders.add(pedido.order());
+        }
+        try {
+            OrderBatchResult resultado = orderService.salvarOrdersEmLote(orders);
+            tamanhoDosLotes.record(lote.size());
+            long agora = System.nanoTime();
+            for (int i = 0; i < lote.size(); i++) {
+                Pedido pedido = lote.get(i);
+                situacoes.put(pedido.trackingId(), new OrderIntakeStatus(pedido.trackingId(),
+                        OrderIntakeStatus.Status.CREATED, resultado.ids().get(i), null));
+                atraso.record(agora - pedido.enfileiradoEm(), TimeUnit.NANOSECONDS);
+            }
+        } catch (Exception e) {
+            if (lote.size() > 1) {
+                logger.warn("Lote assíncrono de {} pedidos falhou, gravando um a um: {}", lote.size(), e.getMessage());
+                for (Pedido pedido : lote) {
+                    gravarLote(List.of(pedido));
+                }
+                return;
+            }
+            Pedido pedido = lote.get(0);
+            logger.error("Pedido assíncrono {} não gravado: {}", pedido.trackingId(), e.getMessage());
+            falhas.increment();
+            situacoes.put(pedido.trackingId(), new OrderIntakeStatus(pedido.trackingId(),
+                    OrderIntakeStatus.Status.FAILED, null, e.getMessage()));
+        }
+    }
+
+    @Override
+    public void start() {
+        rodando = true;
+        aceitando = true;
+        for (int i = 0; i < gravadores; i++) {
+            Thread thread = new Thread(this::gravar, "order-intake-writer-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        logger.info("Entrada assíncrona de pedidos ativa: capacidade {}, {} gravador(es), lotes de até {}.",
+                fila.capacidade(), gravadores, tamanhoLote);
+    }
+
+    // Recusa novos pedidos, espera quem já estava enfileirando e deixa os gravadores esvaziarem a fila.
+    @Override
+    public void stop() {
+        aceitando = false;
+        while (produtoresAtivos.get() > 0) {
+            Thread.onSpinWait();
+        }
+        rodando = false;
+        logger.info("Parando entrada assíncrona de pedidos; {} pedidos na fila.", fila.tamanho());
+        long limite = System.nanoTime() + tempoMaximoParada.toNanos();
+        for (Thread thread : threads) {
+            try {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Nenhum gravador vivo (ex.: morreu com um Error) e ainda há pedidos: esvazia nesta thread.
+        if (fila.tamanho() > 0 && threads.stream().noneMatch(Thread::isAlive)) {
+            gravar();
+        }
+        if (fila.tamanho() > 0) {
+            logger.error("Entrada assíncrona parada com {} pedidos não gravados.", fila.tamanho());
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rodando;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+}
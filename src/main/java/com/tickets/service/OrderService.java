@@ -1,45 +1,173 @@
 package com.tickets.service;
 
+import com.tickets.batch.BatchLoader;
+import com.tickets.batch.BatchLoaders;
 import com.tickets.domain.Order;
+import com.tickets.domain.TableVersion;
+import com.tickets.domain.User;
+import com.tickets.dto.CursorPage;
+import com.tickets.dto.ItemOrderTotals;
+import com.tickets.dto.OrderBatchResult;
+import com.tickets.dto.OrderDetail;
+import com.tickets.dto.OrderEvent;
+import com.tickets.dto.OrderSale;
+import com.tickets.dto.OrderSummary;
+import com.tickets.dto.TotalsSort;
+import com.tickets.dto.UserOrderTotals;
+import com.tickets.dto.UserSummary;
+import com.tickets.leaderboard.ItemLeaderboard;
 import com.tickets.repository.OrderRepository;
+import com.tickets.repository.TableVersionRepository;
+import com.tickets.repository.UserRepository;
+import com.tickets.search.SearchIndex;
+import com.tickets.shard.OrderShards;
+import com.tickets.stream.OrderEventBroadcaster;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+    // Linhas até o fim da página nos totais: com várias shards, cada uma devolve todas elas.
+    static final int MAX_LINHAS_PAGINADAS = 10_000;
+
     private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final TableVersionRepository tableVersionRepository;
+    private final OrderShards orderShards;
+    private final UserService userService;
+    private final EntityManager entityManager;
+    private final OrderEventBroadcaster broadcaster;
+    private final SearchIndex searchIndex;
+    private final ItemLeaderboard itemLeaderboard;
+    private final int batchSize;
+    private final BatchLoader<Long, OrderDetail> pedidosPorId;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, UserRepository userRepository,
+                        TableVersionRepository tableVersionRepository, OrderShards orderShards,
+                        UserService userService, EntityManager entityManager, OrderEventBroadcaster broadcaster,
+                        SearchIndex searchIndex, ItemLeaderboard itemLeaderboard, BatchLoaders batchLoaders,
+                        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.tableVersionRepository = tableVersionRepository;
+        this.orderShards = orderShards;
+        this.userService = userService;
+        this.entityManager = entityManager;
+        this.broadcaster = broadcaster;
+        this.searchIndex = searchIndex;
+        this.itemLeaderboard = itemLeaderboard;
+        this.batchSize = batchSize;
+        this.pedidosPorId = batchLoaders.criar("orders-by-id", this::carregarDetalhes);
+    }
+
+    // Cada shard devolve a sua página depois do cursor; a página global são os menores ids entre elas.
+    public CursorPage<OrderSummary> listarOrdersPorCursor(String cursor, int limite) {
+        logger.info("TRANSACTION START: Listando pedidos a partir do cursor {} (limite {}).", cursor, limite);
+        try {
+            int tamanho = CursorPage.normalizarLimite(limite);
+            long depoisDe = CursorPage.decode(cursor);
+            List<OrderSummary> orders = orderShards.emTodas(true,
+                            shard -> orderRepository.findSummariesAfter(depoisDe, Limit.of(tamanho + 1))).stream()
+                    .flatMap(List::stream)
+                    .sorted(Comparator.comparing(OrderSummary::idOrder))
+                    .limit(tamanho + 1)
+                    .toList();
+            CursorPage<OrderSummary> pagina = CursorPage.of(orders, tamanho, OrderSummary::idOrder);
+            logger.info("TRANSACTION END: Página com {} pedidos concluída.", pagina.items().size());
+            return pagina;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao listar pedidos a partir do cursor {}.", cursor, e);
+            throw e;
+        }
+    }
+
+    // Os pedidos de um usuário estão todos na shard dele, então o total de cada usuário sai inteiro de
+    // uma shard: basta o top de cada uma até o fim da página pedida. Nomes vêm depois, só da página.
+    @Transactional(readOnly = true)
+    public List<UserOrderTotals> totaisPorUsuario(int pagina, int tamanho, TotalsSort ordenacao) {
+        logger.info("TRANSACTION START: Totais por usuário (página {}, tamanho {}, ordem {}).", pagina, tamanho, ordenacao);
+        try {
+            validarPagina(pagina, tamanho);
+            Sort sort = ordenacao.toSort("o.user.idUser");
+            Pageable porShard = paginaPorShard(pagina, tamanho, sort);
+            List<UserOrderTotals> linhas = paginar(orderShards.emTodas(true, shard -> orderRepository.totalsByUser(porShard)),
+                    Comparator.comparingDouble((UserOrderTotals t) -> ordenacao.valor(t.orders(), t.totalQuantity(), t.revenue()))
+                            .reversed().thenComparing(UserOrderTotals::userId),
+                    pagina, tamanho);
+            Map<Long, String> nomes = new HashMap<>();
+            if (!linhas.isEmpty()) {
+                userRepository.findSummariesByIds(linhas.stream().map(UserOrderTotals::userId).toList())
+                        .forEach(user -> nomes.put(user.idUser(), user.name()));
+            }
+            List<UserOrderTotals> totais = linhas.stream()
+                    .map(t -> new UserOrderTotals(t.userId(), nomes.get(t.userId()), t.orders(), t.totalQuantity(), t.revenue()))
+                    .toList();
+            logger.info("TRANSACTION END: {} usuários nos totais.", totais.size());
+            return totais;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao calcular totais por usuário.", e);
+            throw e;
+        }
     }
 
-    public List<Order> listarTodosOrders() {
-        logger.info("TRANSACTION START: Listando todos os pedidos.");
+    // Um item aparece em várias shards: com mais de uma, cada shard devolve todos os seus itens, e a
+    // soma por item, a ordenação e a página são feitas aqui.
+    public List<ItemOrderTotals> totaisPorItem(int pagina, int tamanho, TotalsSort ordenacao) {
+        logger.info("TRANSACTION START: Totais por item (página {}, tamanho {}, ordem {}).", pagina, tamanho, ordenacao);
         try {
-            List<Order> orders = orderRepository.findAll();
-            logger.info("TRANSACTION END: Listagem de {} pedidos concluída.", orders.size());
-            return orders;
+            validarPagina(pagina, tamanho);
+            Pageable porShard = orderShards.total() == 1
+                    ? paginaPorShard(pagina, tamanho, ordenacao.toSort("o.item"))
+                    : Pageable.unpaged();
+            List<List<ItemOrderTotals>> resultados = orderShards.emTodas(true, shard -> orderRepository.totalsByItem(porShard));
+            if (orderShards.total() > 1) {
+                resultados = List.of(somarPorItem(resultados));
+            }
+            List<ItemOrderTotals> totais = paginar(resultados,
+                    Comparator.comparingDouble((ItemOrderTotals t) -> ordenacao.valor(t.orders(), t.totalQuantity(), t.revenue()))
+                            .reversed().thenComparing(ItemOrderTotals::item),
+                    pagina, tamanho);
+            logger.info("TRANSACTION END: {} itens nos totais.", totais.size());
+            return totais;
         } catch (Exception e) {
-            logger.error("TRANSACTION ERROR: Erro ao listar todos os pedidos.", e);
-            throw e; // É importante relançar a exceção para que a camada superior a trate.
+            logger.error("TRANSACTION ERROR: Erro ao calcular totais por item.", e);
+            throw e;
         }
     }
 
     public Optional<Order> buscarOrderPorId(Long id) {
         logger.info("TRANSACTION START: Buscando pedido com ID: {}.", id);
         try {
-            Optional<Order> order = orderRepository.findById(id);
+            Optional<Order> order = orderShards.executar(orderShards.shardDoPedido(id), true,
+                    () -> orderRepository.findById(id));
             if (order.isPresent()) {
-                logger.info("TRANSACTION END: Pedido com ID {} encontrado: {}.", id, order.get());
+                logger.info("TRANSACTION END: Pedido com ID {} encontrado.", id);
             } else {
                 logger.warn("TRANSACTION END: Pedido com ID {} não encontrado.", id);
             }
@@ -50,13 +178,18 @@ public class OrderService {
         }
     }
 
-    @Transactional(readOnly = true)
-    public Optional<Order> buscarOrderComUsuario(Long id) {
+    // Pedido pelo BatchLoader (junto com outras buscas concorrentes); o nome do usuário vem do
+    // UserService, pelo cache ou pelo loader de usuários.
+    public Optional<OrderDetail> buscarOrderComUsuario(Long id) {
         logger.info("TRANSACTION START: Buscando pedido com ID {} e seu usuário.", id);
         try {
-            Optional<Order> order = orderRepository.findById(id);
+            Optional<OrderDetail> order = pedidosPorId.buscar(id)
+                    .map(detalhe -> new OrderDetail(detalhe.idOrder(), detalhe.item(), detalhe.quantity(), detalhe.value(),
+                            detalhe.userId(), userService.buscarUserPorId(detalhe.userId())
+                                    .map(UserSummary::name).orElse(null),
+                            detalhe.version()));
             if (order.isPresent()) {
-                logger.info("TRANSACTION END: Pedido com ID {} e usuário {} encontrado.", id, order.get().getUser().getName());
+                logger.info("TRANSACTION END: Pedido com ID {} e usuário {} encontrado.", id, order.get().userName());
             } else {
                 logger.warn("TRANSACTION END: Pedido com ID {} não encontrado.", id);
             }
@@ -68,9 +201,30 @@ public class OrderService {
     }
 
     public Order salvarOrder(Order order) {
-        logger.info("TRANSACTION START: Salvando novo pedido: {}.", order);
+        logger.info("TRANSACTION START: Salvando novo pedido.");
         try {
-            Order orderSalvo = orderRepository.save(order);
+            order.setVersion(null);
+            User userInformado = order.getUser();
+            if (userInformado == null || userInformado.getIdUser() == null) {
+                throw new DataIntegrityViolationException("Pedido sem user.idUser.");
+            }
+            Long userId = userInformado.getIdUser();
+            int shard = orderShards.shardDoUsuario(userId);
+            // Fora da shard 0 não há chave estrangeira para users.
+            if (shard != 0 && userService.buscarUserPorId(userId).isEmpty()) {
+                throw new DataIntegrityViolationException("Usuário inexistente: " + userId);
+            }
+            Order orderSalvo = orderShards.executar(shard, false, () -> {
+                // Referência sem SELECT; o User vindo do JSON não tem versão e o Hibernate o rejeitaria.
+                order.setUser(userRepository.getReferenceById(userId));
+                Order salvo = orderRepository.save(order);
+                tableVersionRepository.increment(TableVersion.ORDERS);
+                return salvo;
+            });
+            // A resposta devolve o usuário como veio no corpo, não o proxy.
+            orderSalvo.setUser(userInformado);
+            registrarAlteracao(List.of(evento(OrderEvent.Type.CREATED, orderSalvo)),
+                    List.of(ItemLeaderboard.Alteracao.gravacao(venda(orderSalvo))));
             logger.info("TRANSACTION END: Pedido criado com ID: {}.", orderSalvo.getIdOrder());
             return orderSalvo;
         } catch (Exception e) {
@@ -79,40 +233,204 @@ public class OrderService {
         }
     }
 
-    public void deletarOrder(Long id) {
-        logger.warn("TRANSACTION START: Deletando pedido com ID: {}.", id);
+    // Validação dos usuários na transação do banco principal; cada shard do lote grava na sua, aninhada
+    // (OrderShards.escreverEmCadeia). O lote é atômico só até a fase de commit: uma falha em qualquer
+    // escrita desfaz todas, mas uma falha no commit de uma shard deixa gravadas as que já confirmaram.
+    // Eventos e vendas de todas as shards saem juntos, depois do commit da transação de fora.
+    @Transactional
+    public OrderBatchResult salvarOrdersEmLote(List<Order> orders) {
+        logger.info("TRANSACTION START: Salvando lote de {} pedidos.", orders.size());
+        try {
+            Set<Long> userIds = new HashSet<>();
+            for (Order order : orders) {
+                if (order.getUser() == null || order.getUser().getIdUser() == null) {
+                    throw new IllegalArgumentException("Pedido sem user.idUser no lote.");
+                }
+                userIds.add(order.getUser().getIdUser());
+            }
+            // Uma única consulta valida todos os usuários do lote, em vez de uma por pedido.
+            Set<Long> existentes = userRepository.findExistingIds(userIds);
+            if (existentes.size() != userIds.size()) {
+                userIds.removeAll(existentes);
+                throw new IllegalArgumentException("Usuários inexistentes no lote: " + userIds);
+            }
+
+            // Posições do lote por shard do usuário, para devolver os ids na ordem em que os pedidos vieram.
+            Map<Integer, List<Integer>> posicoesPorShard = new TreeMap<>();
+            for (int i = 0; i < orders.size(); i++) {
+                posicoesPorShard.computeIfAbsent(orderShards.shardDoUsuario(orders.get(i).getUser().getIdUser()),
+                        shard -> new ArrayList<>()).add(i);
+            }
+            Long[] ids = new Long[orders.size()];
+            List<OrderEvent> eventos = new ArrayList<>(orders.size());
+            List<ItemLeaderboard.Alteracao> vendas = new ArrayList<>(orders.size());
+            orderShards.escreverEmCadeia(List.copyOf(posicoesPorShard.keySet()), shard -> {
+                List<Integer> posicoes = posicoesPorShard.get(shard);
+                for (int j = 0; j < posicoes.size(); j++) {
+                    int i = posicoes.get(j);
+                    Order order = orders.get(i);
+                    order.setId(null);
+                    order.setVersion(null);
+                    Long userId = order.getUser().getIdUser();
+                    order.setUser(userRepository.getReferenceById(userId));
+                    Order orderSalvo = orderRepository.save(order);
+                    ids[i] = orderSalvo.getIdOrder();
+                    eventos.add(new OrderEvent(OrderEvent.Type.CREATED, orderSalvo.getIdOrder(), orderSalvo.getItem(),
+                            orderSalvo.getQuantity(), orderSalvo.getValue(), userId));
+                    vendas.add(ItemLeaderboard.Alteracao.gravacao(venda(orderSalvo)));
+                    if ((j + 1) % batchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                tableVersionRepository.increment(TableVersion.ORDERS);
+            });
+            registrarAlteracao(eventos, vendas);
+            logger.info("TRANSACTION END: Lote de {} pedidos salvo em {} shards.", ids.length, posicoesPorShard.size());
+            return new OrderBatchResult(ids.length, Arrays.asList(ids));
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao salvar lote de {} pedidos.", orders.size(), e);
+            throw e;
+        }
+    }
+
+    public boolean deletarOrder(Long id, Long version) {
+        logger.info("TRANSACTION START: Deletando pedido com ID: {} (versão {}).", id, version);
         try {
-            if (orderRepository.existsById(id)) {
-                orderRepository.deleteById(id);
-                logger.warn("TRANSACTION END: Pedido com ID {} deletado com sucesso.", id);
+            boolean deletado = orderShards.executar(orderShards.shardDoPedido(id), false, () -> {
+                if (orderRepository.deleteIfVersionMatches(id, version) == 0) {
+                    return existeEmOutraVersao(id);
+                }
+                tableVersionRepository.increment(TableVersion.ORDERS);
+                registrarAlteracao(List.of(OrderEvent.deleted(id)), List.of(ItemLeaderboard.Alteracao.remocao(id)));
+                return true;
+            });
+            if (deletado) {
+                logger.info("TRANSACTION END: Pedido com ID {} deletado com sucesso.", id);
             } else {
                 logger.warn("TRANSACTION END: Pedido com ID {} não encontrado para deletar.", id);
             }
+            return deletado;
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("TRANSACTION END: Pedido com ID {} não está mais na versão {}.", id, version);
+            throw e;
         } catch (Exception e) {
             logger.error("TRANSACTION ERROR: Erro ao deletar o pedido com ID: {}.", id, e);
             throw e;
         }
     }
 
-    public Order atualizarOrder(Long id, Order orderAtualizado) {
-        logger.info("TRANSACTION START: Atualizando pedido com ID {}. Dados: {}", id, orderAtualizado);
+    public boolean atualizarOrder(Long id, Order orderAtualizado) {
+        logger.info("TRANSACTION START: Atualizando pedido com ID {} (versão {}).", id, orderAtualizado.getVersion());
         try {
-            return orderRepository.findById(id)
-                    .map(order -> {
-                        order.setItem(orderAtualizado.getItem());
-                        order.setQuantity(orderAtualizado.getQuantity());
-                        order.setValue(orderAtualizado.getValue());
-                        Order orderSalvo = orderRepository.save(order);
-                        logger.info("TRANSACTION END: Pedido com ID {} atualizado com sucesso. Novos dados: {}", orderSalvo.getIdOrder(), orderSalvo);
-                        return orderSalvo;
-                    })
-                    .orElseGet(() -> {
-                        logger.warn("TRANSACTION END: Pedido com ID {} não encontrado para atualizar.", id);
-                        return null;
-                    });
+            boolean atualizado = orderShards.executar(orderShards.shardDoPedido(id), false, () -> {
+                Long version = orderAtualizado.getVersion();
+                if (orderRepository.updateIfVersionMatches(id, orderAtualizado.getItem(), orderAtualizado.getQuantity(),
+                        orderAtualizado.getValue(), version) == 0) {
+                    return existeEmOutraVersao(id);
+                }
+                tableVersionRepository.increment(TableVersion.ORDERS);
+                // Sem created_at: o ranking usa o bucket da venda que ele já guarda.
+                OrderSale depois = new OrderSale(id, orderAtualizado.getItem(), orderAtualizado.getQuantity(),
+                        orderAtualizado.getValue(), null, version + 1);
+                registrarAlteracao(List.of(new OrderEvent(OrderEvent.Type.UPDATED, id, orderAtualizado.getItem(),
+                                orderAtualizado.getQuantity(), orderAtualizado.getValue(), null)),
+                        List.of(ItemLeaderboard.Alteracao.gravacao(depois)));
+                return true;
+            });
+            if (atualizado) {
+                logger.info("TRANSACTION END: Pedido com ID {} atualizado com sucesso.", id);
+            } else {
+                logger.warn("TRANSACTION END: Pedido com ID {} não encontrado para atualizar.", id);
+            }
+            return atualizado;
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("TRANSACTION END: Pedido com ID {} não está mais na versão {}.", id, orderAtualizado.getVersion());
+            throw e;
         } catch (Exception e) {
             logger.error("TRANSACTION ERROR: Erro ao atualizar o pedido com ID: {} e dados: {}.", id, orderAtualizado, e);
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    private static void validarPagina(int pagina, int tamanho) {
+        if ((Math.max(0, (long) pagina) + 1) * CursorPage.normalizarLimite(tamanho) > MAX_LINHAS_PAGINADAS) {
+            throw new IllegalArgumentException("Página além das primeiras " + MAX_LINHAS_PAGINADAS + " linhas.");
+        }
+    }
+
+    // Com uma shard o banco já devolve a página pedida; com mais, cada shard devolve do início até o fim dela.
+    private Pageable paginaPorShard(int pagina, int tamanho, Sort sort) {
+        int tamanhoPagina = CursorPage.normalizarLimite(tamanho);
+        if (orderShards.total() == 1) {
+            return PageRequest.of(Math.max(0, pagina), tamanhoPagina, sort);
+        }
+        return PageRequest.of(0, (Math.max(0, pagina) + 1) * tamanhoPagina, sort);
+    }
+
+    private <T> List<T> paginar(List<List<T>> porShard, Comparator<T> ordem, int pagina, int tamanho) {
+        if (orderShards.total() == 1) {
+            return porShard.get(0);
+        }
+        int tamanhoPagina = CursorPage.normalizarLimite(tamanho);
+        return porShard.stream()
+                .flatMap(List::stream)
+                .sorted(ordem)
+                .skip((long) Math.max(0, pagina) * tamanhoPagina)
+                .limit(tamanhoPagina)
+                .toList();
+    }
+
+    private static List<ItemOrderTotals> somarPorItem(List<List<ItemOrderTotals>> porShard) {
+        Map<String, ItemOrderTotals> porItem = new HashMap<>();
+        for (List<ItemOrderTotals> totais : porShard) {
+            for (ItemOrderTotals t : totais) {
+                porItem.merge(t.item(), t, (a, b) -> new ItemOrderTotals(a.item(), a.orders() + b.orders(),
+                        a.totalQuantity() + b.totalQuantity(), a.revenue() + b.revenue()));
+            }
+        }
+        return new ArrayList<>(porItem.values());
+    }
+
+    // Índice de busca, ranking de itens e feed /orders/stream só mudam depois do commit: rollback não vira evento.
+    private void registrarAlteracao(List<OrderEvent> eventos, List<ItemLeaderboard.Alteracao> vendas) {
+        AposCommit.executar(() -> {
+            searchIndex.aplicar(eventos);
+            itemLeaderboard.aplicar(vendas);
+            broadcaster.publicar(eventos);
+        });
+    }
+
+    private static OrderSale venda(Order order) {
+        return new OrderSale(order.getIdOrder(), order.getItem(), order.getQuantity(), order.getValue(),
+                order.getCreatedAt(), order.getVersion());
+    }
+
+    private static OrderEvent evento(OrderEvent.Type tipo, Order order) {
+        Long userId = order.getUser() != null ? order.getUser().getIdUser() : null;
+        return new OrderEvent(tipo, order.getIdOrder(), order.getItem(), order.getQuantity(), order.getValue(), userId);
+    }
+
+    // Update ou delete condicionado à versão que não alterou nada: só aqui se consulta a linha, para
+    // separar o pedido em outra versão (409) do inexistente (404, devolvendo false).
+    private boolean existeEmOutraVersao(Long id) {
+        if (orderRepository.existsById(id)) {
+            throw new ObjectOptimisticLockingFailureException(Order.class, id);
+        }
+        return false;
+    }
+
+    // Carga do BatchLoader de pedidos: uma consulta IN por shard presente no lote.
+    private Map<Long, OrderDetail> carregarDetalhes(List<Long> ids) {
+        Map<Integer, List<Long>> porShard = new TreeMap<>();
+        for (Long id : ids) {
+            porShard.computeIfAbsent(orderShards.shardDoPedido(id), shard -> new ArrayList<>()).add(id);
+        }
+        Map<Long, OrderDetail> detalhes = new HashMap<>();
+        porShard.forEach((shard, idsDaShard) -> orderShards.executar(shard, true,
+                () -> orderRepository.findDetailsByIds(idsDaShard)).forEach(detalhe -> detalhes.put(detalhe.idOrder(), detalhe)));
+        return detalhes;
+    }
+}
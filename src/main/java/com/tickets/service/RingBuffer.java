@@ -0,0 +1,79 @@
+package com.tickets.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Fila circular limitada, sem lock, para vários produtores e consumidores (algoritmo de D. Vyukov).
+// Cada posição guarda um número de sequência: igual à posição de escrita quando está livre e
+// posição + 1 quando está preenchida. Produtores e consumidores só disputam um CAS no próprio contador.
+final class RingBuffer<E> {
+
+    private final int mascara;
+    private final AtomicReferenceArray<E> itens;
+    private final AtomicLongArray sequencias;
+    private final AtomicLong escrita = new AtomicLong();
+    private final AtomicLong leitura = new AtomicLong();
+
+    RingBuffer(int capacidadeMinima) {
+        int capacidade = Integer.highestOneBit(Math.max(2, capacidadeMinima - 1)) << 1;
+        this.mascara = capacidade - 1;
+        this.itens = new AtomicReferenceArray<>(capacidade);
+        this.sequencias = new AtomicLongArray(capacidade);
+        for (int i = 0; i < capacidade; i++) {
+            sequencias.set(i, i);
+        }
+    }
+
+    // false quando a fila está cheia; quem chamou decide o que fazer (ex.: 429).
+    boolean oferecer(E item) {
+        long posicao = escrita.get();
+        while (true) {
+            int indice = (int) (posicao & mascara);
+            long diferenca = sequencias.get(indice) - posicao;
+            if (diferenca == 0) {
+                if (escrita.compareAndSet(posicao, posicao + 1)) {
+                    itens.lazySet(indice, item);
+                    sequencias.set(indice, posicao + 1);
+                    return true;
+                }
+                posicao = escrita.get();
+            } else if (diferenca < 0) {
+                return false;
+            } else {
+                posicao = escrita.get();
+            }
+        }
+    }
+
+    // null quando a fila está vazia.
+    E retirar() {
+        long posicao = leitura.get();
+        while (true) {
+            int indice = (int) (posicao & mascara);
+            long diferenca = sequencias.get(indice) - (posicao + 1);
+            if (diferenca == 0) {
+                if (leitura.compareAndSet(posicao, posicao + 1)) {
+                    E item = itens.get(indice);
+                    itens.lazySet(indice, null);
+                    sequencias.set(indice, posicao + mascara + 1);
+                    return item;
+                }
+                posicao = leitura.get();
+            } else if (diferenca < 0) {
+                return null;
+            } else {
+                posicao = leitura.get();
+            }
+        }
+    }
+
+    int tamanho() {
+        long tamanho = escrita.get() - leitura.get();
+        return (int) Math.max(0, Math.min(tamanho, capacidade()));
+    }
+
+    int capacidade() {
+        return mascara + 1;
+    }
+}
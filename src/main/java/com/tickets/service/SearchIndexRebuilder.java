@@ -0,0 +1,76 @@
+package com.tickets.service;
+
+import com.tickets.search.SearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Monta os índices de busca em segundo plano quando a aplicação sobe e remonta quando updates e
+// deletes passam de uma fração das entradas. Até a primeira carga, as buscas respondem 503.
+@Component
+public class SearchIndexRebuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexRebuilder.class);
+
+    private final SearchService searchService;
+    private final SearchIndex searchIndex;
+    private final double fracaoObsoleta;
+    private final Duration intervalo;
+    private final Timer duracao;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "search-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public SearchIndexRebuilder(SearchService searchService, SearchIndex searchIndex, MeterRegistry meterRegistry,
+                                @Value("${tickets.search.rebuild-stale-ratio:0.5}") double fracaoObsoleta,
+                                @Value("${tickets.search.rebuild-check-interval:5m}") Duration intervalo) {
+        this.searchService = searchService;
+        this.searchIndex = searchIndex;
+        this.fracaoObsoleta = fracaoObsoleta;
+        this.intervalo = intervalo;
+        this.duracao = Timer.builder("tickets.search.index.rebuild")
+                .description("Duração de cada reconstrução dos índices de busca")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        executor.execute(this::reconstruir);
+        executor.scheduleWithFixedDelay(this::verificarObsoletos,
+                intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void verificarObsoletos() {
+        if (!searchIndex.pronto() || searchIndex.obsoletos() > searchIndex.registros() * fracaoObsoleta) {
+            reconstruir();
+        }
+    }
+
+    private void reconstruir() {
+        try {
+            duracao.record(searchService::reconstruirIndices);
+        } catch (Exception e) {
+            logger.error("Falha ao reconstruir índices de busca; nova tentativa em {}.", intervalo, e);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+}
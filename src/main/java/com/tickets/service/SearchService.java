@@ -0,0 +1,184 @@
+package com.tickets.service;
+
+import com.tickets.dto.CursorPage;
+import com.tickets.dto.OrderSummary;
+import com.tickets.dto.UserSummary;
+import com.tickets.repository.OrderRepository;
+import com.tickets.repository.UserRepository;
+import com.tickets.search.SearchIndex;
+import com.tickets.search.Tokenizador;
+import com.tickets.shard.OrderShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final OrderShards orderShards;
+    private final SearchIndex searchIndex;
+
+    @Autowired
+    public SearchService(OrderRepository orderRepository, UserRepository userRepository, OrderShards orderShards,
+                         SearchIndex searchIndex) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.orderShards = orderShards;
+        this.searchIndex = searchIndex;
+    }
+
+    // Pedidos cujo item tem todos os termos, do mais recente para o mais antigo. Os candidatos do
+    // índice são conferidos no banco por chave primária; os que não batem mais são pulados.
+    @Transactional(readOnly = true)
+    public List<OrderSummary> buscarOrdersPorItem(String consulta, int limite) {
+        logger.info("TRANSACTION START: Buscando pedidos com item '{}' (limite {}).", consulta, limite);
+        try {
+            List<String> termos = Tokenizador.tokens(consulta);
+            if (termos.isEmpty()) {
+                throw new IllegalArgumentException("Consulta sem termos.");
+            }
+            verificarPronto();
+            int tamanho = CursorPage.normalizarLimite(limite);
+            List<OrderSummary> orders = new ArrayList<>(tamanho);
+            long antesDe = Long.MAX_VALUE;
+            while (orders.size() < tamanho) {
+                long[] candidatos = searchIndex.candidatosOrders(termos, antesDe, tamanho - orders.size());
+                if (candidatos.length == 0) {
+                    break;
+                }
+                Map<Long, OrderSummary> porId = ordersPorId(candidatos);
+                for (long id : candidatos) {
+                    OrderSummary order = porId.get(id);
+                    if (order != null && Tokenizador.tokens(order.item()).containsAll(termos)) {
+                        orders.add(order);
+                    }
+                }
+                antesDe = candidatos[candidatos.length - 1];
+            }
+            logger.info("TRANSACTION END: {} pedidos encontrados para '{}'.", orders.size(), consulta);
+            return orders;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao buscar pedidos com item '{}'.", consulta, e);
+            throw e;
+        }
+    }
+
+    // Usuários cujo nome, alguma palavra do nome ou email começa com o prefixo, em ordem alfabética.
+    @Transactional(readOnly = true)
+    public List<UserSummary> buscarUsersPorPrefixo(String prefixo, int limite) {
+        logger.info("TRANSACTION START: Buscando usuários com prefixo '{}' (limite {}).", prefixo, limite);
+        try {
+            String normalizado = Tokenizador.normalizar(prefixo);
+            if (normalizado.isEmpty()) {
+                throw new IllegalArgumentException("Prefixo vazio.");
+            }
+            verificarPronto();
+            int tamanho = CursorPage.normalizarLimite(limite);
+            List<UserSummary> users = new ArrayList<>(tamanho);
+            Set<Long> vistos = new HashSet<>();
+            // Entradas antigas de update ou delete não contam: busca mais candidatos, com lote dobrando,
+            // até completar a página ou o índice acabar.
+            int lote = tamanho;
+            while (users.size() < tamanho) {
+                long[] candidatos = searchIndex.candidatosUsers(normalizado, vistos.size(), lote);
+                long[] novos = Arrays.stream(candidatos).filter(vistos::add).toArray();
+                if (novos.length > 0) {
+                    Map<Long, UserSummary> porId = porId(userRepository.findSummariesByIds(ids(novos)), UserSummary::idUser);
+                    for (long id : novos) {
+                        UserSummary user = porId.get(id);
+                        if (user != null && users.size() < tamanho && SearchIndex.chavesUser(user.name(), user.email())
+                                .stream().anyMatch(chave -> chave.startsWith(normalizado))) {
+                            users.add(user);
+                        }
+                    }
+                }
+                if (candidatos.length < lote) {
+                    break;
+                }
+                lote *= 2;
+            }
+            logger.info("TRANSACTION END: {} usuários encontrados para '{}'.", users.size(), prefixo);
+            return users;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao buscar usuários com prefixo '{}'.", prefixo, e);
+            throw e;
+        }
+    }
+
+    // Lê do primário, não da réplica: escrita já commitada no primário e ainda não replicada não
+    // passaria pelo índice em construção e ficaria de fora.
+    @Transactional
+    public void reconstruirIndices() {
+        logger.info("TRANSACTION START: Reconstruindo índices de busca.");
+        SearchIndex.Reconstrucao reconstrucao = searchIndex.iniciarReconstrucao();
+        try {
+            long orders = 0;
+            long users = 0;
+            for (int shard = 0; shard < orderShards.total(); shard++) {
+                orders += orderShards.executar(shard, false, () -> {
+                    long lidos = 0;
+                    try (Stream<OrderSummary> stream = orderRepository.streamAllSummaries()) {
+                        for (OrderSummary order : (Iterable<OrderSummary>) stream::iterator) {
+                            reconstrucao.order(order.idOrder(), order.item());
+                            lidos++;
+                        }
+                    }
+                    return lidos;
+                });
+            }
+            try (Stream<UserSummary> stream = userRepository.streamAllSummaries()) {
+                for (UserSummary user : (Iterable<UserSummary>) stream::iterator) {
+                    reconstrucao.user(user.idUser(), user.name(), user.email());
+                    users++;
+                }
+            }
+            searchIndex.concluir(reconstrucao);
+            logger.info("TRANSACTION END: Índices de busca reconstruídos com {} pedidos e {} usuários.", orders, users);
+        } catch (Exception e) {
+            searchIndex.abortar(reconstrucao);
+            logger.error("TRANSACTION ERROR: Erro ao reconstruir índices de busca.", e);
+            throw e;
+        }
+    }
+
+    // Candidatos agrupados pela shard do id: uma consulta por shard que tem algum deles.
+    private Map<Long, OrderSummary> ordersPorId(long[] candidatos) {
+        Map<Integer, List<Long>> porShard = Arrays.stream(candidatos).boxed()
+                .collect(Collectors.groupingBy(orderShards::shardDoPedido));
+        Map<Long, OrderSummary> porId = new HashMap<>();
+        porShard.forEach((shard, ids) -> porId.putAll(porId(
+                orderShards.executar(shard, true, () -> orderRepository.findSummariesByIds(ids)), OrderSummary::idOrder)));
+        return porId;
+    }
+
+    private void verificarPronto() {
+        if (!searchIndex.pronto()) {
+            throw new IllegalStateException("Índice de busca ainda em construção.");
+        }
+    }
+
+    private static List<Long> ids(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private static <T> Map<Long, T> porId(List<T> itens, Function<T, Long> id) {
+        return itens.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.tickets.service;
+
+import com.tickets.domain.TableVersion;
+import com.tickets.repository.TableVersionRepository;
+import com.tickets.shard.OrderShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Contadores de alteração das tabelas que cada GET condicional lê, um valor por shard envolvida. Na
+// shard 0 users e orders saem numa leitura só (a soma dos dois contadores).
+@Service
+public class TableVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableVersionService.class);
+
+    private static final List<String> USERS = List.of(TableVersion.USERS);
+    private static final List<String> ORDERS = List.of(TableVersion.ORDERS);
+    private static final List<String> USERS_E_ORDERS = List.of(TableVersion.USERS, TableVersion.ORDERS);
+
+    private final TableVersionRepository tableVersionRepository;
+    private final OrderShards orderShards;
+
+    @Autowired
+    public TableVersionService(TableVersionRepository tableVersionRepository, OrderShards orderShards) {
+        this.tableVersionRepository = tableVersionRepository;
+        this.orderShards = orderShards;
+    }
+
+    public List<Long> versaoDosPedidos() {
+        logger.info("TRANSACTION START: Lendo a versão dos pedidos.");
+        try {
+            List<Long> versoes = orderShards.emTodas(true, shard -> tableVersionRepository.sumVersions(ORDERS));
+            logger.info("TRANSACTION END: Versão dos pedidos: {}.", versoes);
+            return versoes;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao ler a versão dos pedidos.", e);
+            throw e;
+        }
+    }
+
+    public List<Long> versaoDosUsuarios() {
+        logger.info("TRANSACTION START: Lendo a versão dos usuários.");
+        try {
+            List<Long> versoes = List.of(tableVersionRepository.sumVersions(USERS));
+            logger.info("TRANSACTION END: Versão dos usuários: {}.", versoes);
+            return versoes;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao ler a versão dos usuários.", e);
+            throw e;
+        }
+    }
+
+    // Detalhe do pedido: o pedido na shard dele e o nome do usuário no banco principal.
+    public List<Long> versaoDoPedido(Long idOrder) {
+        return versaoDeUsuariosEPedidos(orderShards.shardDoPedido(idOrder));
+    }
+
+    // Detalhe do usuário: o usuário no banco principal e os pedidos dele na shard dele.
+    public List<Long> versaoDoUsuarioComPedidos(Long idUser) {
+        return versaoDeUsuariosEPedidos(orderShards.shardDoUsuario(idUser));
+    }
+
+    private List<Long> versaoDeUsuariosEPedidos(int shardDosPedidos) {
+        logger.info("TRANSACTION START: Lendo a versão de usuários e pedidos (shard {}).", shardDosPedidos);
+        try {
+            List<Long> versoes = shardDosPedidos == 0
+                    ? List.of(tableVersionRepository.sumVersions(USERS_E_ORDERS))
+                    : List.of(tableVersionRepository.sumVersions(USERS), orderShards.executar(shardDosPedidos, true,
+                            () -> tableVersionRepository.sumVersions(ORDERS)));
+            logger.info("TRANSACTION END: Versão de usuários e pedidos: {}.", versoes);
+            return versoes;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao ler a versão de usuários e pedidos.", e);
+            throw e;
+        }
+    }
+}
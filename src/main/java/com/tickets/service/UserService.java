@@ -1,13 +1,37 @@
 package com.tickets.service;
 
+import com.tickets.batch.BatchLoader;
+import com.tickets.batch.BatchLoaders;
+import com.tickets.cache.UserCache;
+import com.tickets.config.ShardRoutingDataSource;
+import com.tickets.domain.TableVersion;
 import com.tickets.domain.User;
+import com.tickets.dto.CursorPage;
+import com.tickets.dto.UserDetail;
+import com.tickets.dto.UserSummary;
+import com.tickets.repository.OrderRepository;
+import com.tickets.repository.TableVersionRepository;
 import com.tickets.repository.UserRepository;
+import com.tickets.search.SearchIndex;
+import com.tickets.shard.OrderShards;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 public class UserService {
@@ -15,30 +39,55 @@ public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+    private final TableVersionRepository tableVersionRepository;
+    private final OrderShards orderShards;
+    private final UserCache userCache;
+    private final SearchIndex searchIndex;
+    private final BatchLoader<Long, UserSummary> usuariosPorId;
+    private final BatchLoader<String, UserSummary> usuariosPorEmail;
+    private final TransactionTemplate cargaNoPrimario;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, OrderRepository orderRepository,
+                       TableVersionRepository tableVersionRepository, OrderShards orderShards,
+                       UserCache userCache, SearchIndex searchIndex, BatchLoaders batchLoaders,
+                       PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
+        this.orderRepository = orderRepository;
+        this.tableVersionRepository = tableVersionRepository;
+        this.orderShards = orderShards;
+        this.userCache = userCache;
+        this.searchIndex = searchIndex;
+        this.usuariosPorId = batchLoaders.criar("users-by-id", ids -> noPrimario(() -> carregarPorIds(ids)));
+        this.usuariosPorEmail = batchLoaders.criar("users-by-email", emails -> noPrimario(() -> carregarPorEmails(emails)));
+        this.cargaNoPrimario = new TransactionTemplate(transactionManager);
+        this.cargaNoPrimario.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
-    public List<User> listarTodosUsers() {
-        logger.info("TRANSACTION START: Listando todos os usuários.");
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> listarUsersPorCursor(String cursor, int limite) {
+        logger.info("TRANSACTION START: Listando usuários a partir do cursor {} (limite {}).", cursor, limite);
         try {
-            List<User> users = userRepository.findAll();
-            logger.info("TRANSACTION END: Listagem de {} usuários concluída.", users.size());
-            return users;
+            int tamanho = CursorPage.normalizarLimite(limite);
+            List<UserSummary> users = userRepository.findSummariesAfter(
+                    CursorPage.decode(cursor), Limit.of(tamanho + 1));
+            CursorPage<UserSummary> pagina = CursorPage.of(users, tamanho, UserSummary::idUser);
+            logger.info("TRANSACTION END: Página com {} usuários concluída.", pagina.items().size());
+            return pagina;
         } catch (Exception e) {
-            logger.error("TRANSACTION ERROR: Erro ao listar todos os usuários.", e);
+            logger.error("TRANSACTION ERROR: Erro ao listar usuários a partir do cursor {}.", cursor, e);
             throw e;
         }
     }
 
-    public Optional<User> buscarUserPorId(Long id) {
+    @Transactional(readOnly = true)
+    public Optional<UserSummary> buscarUserPorId(Long id) {
         logger.info("TRANSACTION START: Buscando usuário com ID: {}.", id);
         try {
-            Optional<User> user = userRepository.findById(id);
+            Optional<UserSummary> user = userCache.buscarPorId(id, usuariosPorId::buscar);
             if (user.isPresent()) {
-                logger.info("TRANSACTION END: Usuário com ID {} encontrado: {}.", id, user.get());
+                logger.info("TRANSACTION END: Usuário com ID {} encontrado.", id);
             } else {
                 logger.warn("TRANSACTION END: Usuário com ID {} não encontrado.", id);
             }
@@ -49,12 +98,34 @@ public class UserService {
         }
     }
 
-    public Optional<User> buscarUserPorEmail(String email) {
+    // Usuário no banco principal (ou no cache) e pedidos só na shard dele, pelo índice (user_id, id_order).
+    @Transactional(readOnly = true)
+    public Optional<UserDetail> buscarDetalheUsuario(Long id) {
+        logger.info("TRANSACTION START: Buscando usuário com ID {} e seus pedidos.", id);
+        try {
+            Optional<UserDetail> detalhe = userCache.buscarPorId(id, usuariosPorId::buscar)
+                    .map(user -> new UserDetail(user.idUser(), user.name(),
+                            orderShards.executar(orderShards.shardDoUsuario(id), true,
+                                    () -> orderRepository.findSummariesByUserId(id))));
+            if (detalhe.isPresent()) {
+                logger.info("TRANSACTION END: Usuário com ID {} encontrado com {} pedidos.", id, detalhe.get().orders().size());
+            } else {
+                logger.warn("TRANSACTION END: Usuário com ID {} não encontrado.", id);
+            }
+            return detalhe;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao buscar usuário com ID {} e pedidos.", id, e);
+            throw e;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserSummary> buscarUserPorEmail(String email) {
         logger.info("TRANSACTION START: Buscando usuário com email: {}.", email);
         try {
-            Optional<User> user = userRepository.findByEmail(email);
+            Optional<UserSummary> user = userCache.buscarPorEmail(email, usuariosPorEmail::buscar);
             if (user.isPresent()) {
-                logger.info("TRANSACTION END: Usuário com email {} encontrado: {}.", email, user.get());
+                logger.info("TRANSACTION END: Usuário com email {} encontrado.", email);
             } else {
                 logger.warn("TRANSACTION END: Usuário com email {} não encontrado.", email);
             }
@@ -65,10 +136,14 @@ public class UserService {
         }
     }
 
+    @Transactional
     public User salvarUser(User user) {
-        logger.info("TRANSACTION START: Salvando novo usuário: {}.", user);
+        logger.info("TRANSACTION START: Salvando usuário.");
         try {
+            user.setVersion(null);
             User userSalvo = userRepository.save(user);
+            tableVersionRepository.increment(TableVersion.USERS);
+            registrarAlteracao(userSalvo.getIdUser(), userSalvo, false);
             logger.info("TRANSACTION END: Usuário criado com ID: {}.", userSalvo.getIdUser());
             return userSalvo;
         } catch (Exception e) {
@@ -77,18 +152,110 @@ public class UserService {
         }
     }
 
-    public void deletarUser(Long id) {
-        logger.warn("TRANSACTION START: Deletando usuário com ID: {}.", id);
+    @Transactional
+    public boolean atualizarUser(Long id, User userAtualizado) {
+        logger.info("TRANSACTION START: Atualizando usuário com ID {} (versão {}).", id, userAtualizado.getVersion());
         try {
-            if (userRepository.existsById(id)) {
-                userRepository.deleteById(id);
-                logger.warn("TRANSACTION END: Usuário com ID {} deletado com sucesso.", id);
-            } else {
-                logger.warn("TRANSACTION END: Usuário com ID {} não encontrado para deletar.", id);
+            int linhas = userRepository.updateIfVersionMatches(id, userAtualizado.getName(),
+                    userAtualizado.getEmail(), userAtualizado.getVersion());
+            if (linhas == 1) {
+                tableVersionRepository.increment(TableVersion.USERS);
+                registrarAlteracao(id, userAtualizado, true);
+                logger.info("TRANSACTION END: Usuário com ID {} atualizado com sucesso.", id);
+                return true;
             }
+            verificarConflito(id, userAtualizado.getVersion());
+            logger.warn("TRANSACTION END: Usuário com ID {} não encontrado para atualizar.", id);
+            return false;
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("TRANSACTION END: Usuário com ID {} não está mais na versão {}.", id, userAtualizado.getVersion());
+            throw e;
+        } catch (Exception e) {
+            logger.error("TRANSACTION ERROR: Erro ao atualizar o usuário com ID: {} e dados: {}.", id, userAtualizado, e);
+            throw e;
+        }
+    }
+
+    @Transactional
+    public boolean deletarUser(Long id, Long version) {
+        logger.info("TRANSACTION START: Deletando usuário com ID: {} (versão {}).", id, version);
+        try {
+            // Na shard 0 a chave estrangeira de orders barra o delete; nas outras, a checagem é esta.
+            int shard = orderShards.shardDoUsuario(id);
+            if (shard != 0 && orderShards.executar(shard, true, () -> orderRepository.existsByUserIdUser(id))) {
+                throw new DataIntegrityViolationException("Usuário " + id + " tem pedidos na shard " + shard + ".");
+            }
+            if (userRepository.deleteIfVersionMatches(id, version) == 1) {
+                tableVersionRepository.increment(TableVersion.USERS);
+                registrarAlteracao(id, null, true);
+                logger.info("TRANSACTION END: Usuário com ID {} deletado com sucesso.", id);
+                return true;
+            }
+            verificarConflito(id, version);
+            logger.warn("TRANSACTION END: Usuário com ID {} não encontrado para deletar.", id);
+            return false;
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("TRANSACTION END: Usuário com ID {} não está mais na versão {}.", id, version);
+            throw e;
         } catch (Exception e) {
             logger.error("TRANSACTION ERROR: Erro ao deletar o usuário com ID: {}.", id, e);
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    // userIndexado é o estado novo (null no delete); substitui indica que havia uma versão anterior indexada.
+    private void registrarAlteracao(Long id, User userIndexado, boolean substitui) {
+        String name = userIndexado != null ? userIndexado.getName() : null;
+        String email = userIndexado != null ? userIndexado.getEmail() : null;
+        AposCommit.executar(() -> {
+            userCache.invalidar(id);
+            if (substitui) {
+                searchIndex.registrarObsoleto();
+            }
+            if (userIndexado != null) {
+                searchIndex.indexarUser(id, name, email);
+            }
+        });
+    }
+
+    // Só roda quando a escrita não afetou linha nenhuma: separa usuário inexistente (404) de versão desatualizada (409).
+    private void verificarConflito(Long id, Long version) {
+        if (userRepository.existsById(id)) {
+            throw new ObjectOptimisticLockingFailureException(User.class, id);
+        }
+    }
+
+    // O que a carga devolve fica no cache até tickets.cache.users.ttl; lido de uma réplica atrasada, um rename
+    // recém-gravado voltaria ao nome antigo por todo esse tempo. Por isso a carga roda numa transação própria,
+    // não readOnly (vai para o primário), e na shard 0, onde estão os usuários, mesmo chamada de dentro de
+    // uma transação de outra shard.
+    private <T> T noPrimario(Supplier<T> carga) {
+        return ShardRoutingDataSource.naShard(0, () -> cargaNoPrimario.execute(status -> carga.get()));
+    }
+
+    // Cargas dos BatchLoaders: uma consulta IN por lote, executada pela chamada que abriu o lote.
+    private Map<Long, UserSummary> carregarPorIds(List<Long> ids) {
+        Map<Long, UserSummary> users = new HashMap<>();
+        for (UserSummary user : userRepository.findSummariesByIds(ids)) {
+            users.put(user.idUser(), user);
+        }
+        return users;
+    }
+
+    // No MySQL a comparação de email ignora maiúsculas, então cada email pedido recebe o usuário
+    // cujo email bate sem diferenciar caixa, como acontecia na busca individual.
+    private Map<String, UserSummary> carregarPorEmails(List<String> emails) {
+        Map<String, UserSummary> encontrados = new HashMap<>();
+        for (UserSummary user : userRepository.findSummariesByEmails(emails)) {
+            encontrados.put(user.email().toLowerCase(Locale.ROOT), user);
+        }
+        Map<String, UserSummary> users = new HashMap<>();
+        for (String email : emails) {
+            UserSummary user = encontrados.get(email.toLowerCase(Locale.ROOT));
+            if (user != null) {
+                users.put(email, user);
+            }
+        }
+        return users;
+    }
+}
@@ -0,0 +1,158 @@
+package com.tickets.shard;
+
+import com.tickets.config.ShardProperties;
+import com.tickets.config.ShardRoutingDataSource;
+import com.tickets.sql.SqlRequestStats;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// Pedidos ficam na shard de hash(user_id); o id do pedido carrega a shard (ShardedSequenceGenerator).
+// Cada acesso a orders passa por aqui: marca a shard no thread e abre a transação nela. Com uma shard
+// só, tudo roda no thread de quem chama e se junta à transação dele, como antes do sharding.
+@Component
+public class OrderShards implements DisposableBean {
+
+    private final int total;
+    private final TransactionTemplate leitura;
+    private final TransactionTemplate escrita;
+    private final TransactionTemplate leituraSeparada;
+    private final TransactionTemplate escritaSeparada;
+    private final ExecutorService scatter;
+
+    @Autowired
+    public OrderShards(ShardProperties properties, PlatformTransactionManager transactionManager) {
+        this.total = properties.total();
+        this.leitura = template(transactionManager, true, TransactionDefinition.PROPAGATION_REQUIRED);
+        this.escrita = template(transactionManager, false, TransactionDefinition.PROPAGATION_REQUIRED);
+        this.leituraSeparada = template(transactionManager, true, TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.escritaSeparada = template(transactionManager, false, TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (total > 1) {
+            AtomicInteger sequencia = new AtomicInteger();
+            this.scatter = Executors.newFixedThreadPool(properties.getScatterThreads(), r -> {
+                Thread thread = new Thread(r, "order-shard-scatter-" + sequencia.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scatter = null;
+        }
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public int shardDoUsuario(long userId) {
+        return shardDoUsuario(userId, total);
+    }
+
+    public int shardDoPedido(long idOrder) {
+        return (int) Math.floorMod(idOrder, (long) total);
+    }
+
+    // Ids de usuário são sequenciais; a mistura evita que faixas de ids caiam sempre na mesma shard.
+    static int shardDoUsuario(long userId, int total) {
+        return Math.floorMod(Long.hashCode(userId * 0x9E3779B97F4A7C15L), total);
+    }
+
+    // Transação na shard. Dentro de uma transação de outra shard, abre uma separada (a de fora fica
+    // suspensa); na mesma shard, junta-se a ela.
+    public <T> T executar(int shard, boolean readOnly, Supplier<T> acao) {
+        boolean outraShard = TransactionSynchronizationManager.isActualTransactionActive()
+                && ShardRoutingDataSource.shardAtual() != shard;
+        TransactionTemplate template = outraShard
+                ? (readOnly ? leituraSeparada : escritaSeparada)
+                : (readOnly ? leitura : escrita);
+        return ShardRoutingDataSource.naShard(shard, () -> template.execute(status -> acao.get()));
+    }
+
+    // A mesma consulta em todas as shards, em paralelo; o resultado vem na ordem das shards. A shard 0 roda
+    // no thread de quem chama: dentro de uma transação dele, junta-se a ela e lê da mesma conexão (e da
+    // mesma réplica) que o resto da transação, como o ETag de ConditionalGet. As demais levam para o
+    // thread do pool as estatísticas de SQL de quem chama, e os statements delas contam no request.
+    public <T> List<T> emTodas(boolean readOnly, IntFunction<T> consulta) {
+        if (total == 1) {
+            return List.of(executar(0, readOnly, () -> consulta.apply(0)));
+        }
+        SqlRequestStats stats = SqlRequestStats.atual();
+        List<Future<T>> futuros = new ArrayList<>(total - 1);
+        for (int shard = 1; shard < total; shard++) {
+            int indice = shard;
+            futuros.add(scatter.submit(() -> SqlRequestStats.noRequest(stats,
+                    () -> executar(indice, readOnly, () -> consulta.apply(indice)))));
+        }
+        List<T> resultados = new ArrayList<>(total);
+        try {
+            resultados.add(executar(0, readOnly, () -> consulta.apply(0)));
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando as shards.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<T> futuro : futuros) {
+                futuro.cancel(true);
+            }
+        }
+        return resultados;
+    }
+
+    // Escritas em várias shards, no thread de quem chama: a transação de cada shard abre dentro da
+    // anterior, e os commits só começam depois da última escrita, do mais interno para fora. É atômico
+    // só até a fase de commit: erro em qualquer escrita desfaz todas, mas uma falha no commit de uma
+    // shard deixa gravadas as internas. Efeitos pós-commit vão na transação de fora, registrados depois
+    // da chamada, para rodar uma vez só quando todas as shards confirmaram.
+    public void escreverEmCadeia(List<Integer> shards, IntConsumer escrita) {
+        escreverEmCadeia(shards.iterator(), escrita);
+    }
+
+    private void escreverEmCadeia(Iterator<Integer> shards, IntConsumer escrita) {
+        if (!shards.hasNext()) {
+            return;
+        }
+        int shard = shards.next();
+        executar(shard, false, () -> {
+            escrita.accept(shard);
+            escreverEmCadeia(shards, escrita);
+            return null;
+        });
+    }
+
+    private static TransactionTemplate template(PlatformTransactionManager transactionManager, boolean readOnly,
+                                                int propagacao) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        template.setPropagationBehavior(propagacao);
+        return template;
+    }
+
+    @Override
+    public void destroy() {
+        if (scatter != null) {
+            scatter.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tickets.shard;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// Id gerado pela sequence da shard em que a entidade é gravada; ver ShardedSequenceGenerator.
+@IdGeneratorType(ShardedSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface ShardedSequence {
+
+    String sequenceName();
+
+    int allocationSize() default 50;
+}
@@ -0,0 +1,70 @@
+package com.tickets.shard;
+
+import com.tickets.config.ShardRoutingDataSource;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+// Cada shard tem a sua sequence (orders_seq em cada banco) e o seu bloco pooled em memória; o id
+// final é valor * shards + shard, então é único entre as shards e diz em qual delas a linha está
+// (OrderShards.shardDoPedido). Com uma shard só, o id é o próprio valor da sequence, como antes.
+public class ShardedSequenceGenerator implements IdentifierGenerator {
+
+    // Propriedade do Hibernate preenchida pelo DataSourceConfig a partir de tickets.orders.sharding.
+    public static final String SHARDS = "tickets.orders.shards";
+
+    private final ShardedSequence config;
+    private SequenceStyleGenerator[] porShard;
+
+    public ShardedSequenceGenerator(ShardedSequence config) {
+        this.config = config;
+    }
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry serviceRegistry) {
+        int shards = ConfigurationHelper.getInt(SHARDS,
+                serviceRegistry.requireService(ConfigurationService.class).getSettings(), 1);
+        Properties sequence = new Properties();
+        sequence.putAll(parametros);
+        sequence.put(SequenceStyleGenerator.SEQUENCE_PARAM, config.sequenceName());
+        sequence.put(OptimizableGenerator.INCREMENT_PARAM, Integer.toString(config.allocationSize()));
+        porShard = new SequenceStyleGenerator[shards];
+        for (int i = 0; i < shards; i++) {
+            porShard[i] = new SequenceStyleGenerator();
+            porShard[i].configure(type, sequence, serviceRegistry);
+        }
+    }
+
+    // A sequence tem o mesmo nome em todas as shards: o Hibernate reaproveita a já registrada, mas cada
+    // gerador precisa passar por aqui para resolver o nome físico que usa no initialize.
+    @Override
+    public void registerExportables(Database database) {
+        for (SequenceStyleGenerator generator : porShard) {
+            generator.registerExportables(database);
+        }
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        for (SequenceStyleGenerator generator : porShard) {
+            generator.initialize(context);
+        }
+    }
+
+    // A sessão já está na conexão da shard marcada no thread, então o próximo bloco sai da sequence dela.
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entidade) {
+        int shard = ShardRoutingDataSource.shardAtual();
+        long valor = ((Number) porShard[shard].generate(session, entidade)).longValue();
+        return valor * porShard.length + shard;
+    }
+}
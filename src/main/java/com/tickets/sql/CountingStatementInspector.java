@@ -0,0 +1,16 @@
+package com.tickets.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Chamado pelo Hibernate a cada statement preparado. Lotes de INSERT contam uma vez por lote.
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStats stats = SqlRequestStats.atual();
+        if (stats != null) {
+            stats.registrarStatement(sql);
+        }
+        return sql;
+    }
+}
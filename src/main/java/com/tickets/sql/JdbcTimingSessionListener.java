@@ -0,0 +1,36 @@
+package com.tickets.sql;
+
+import org.hibernate.SessionEventListener;
+
+// O StatementInspector não vê a execução; este listener (um por Session) soma o tempo de JDBC no request.
+public class JdbcTimingSessionListener implements SessionEventListener {
+
+    private long inicio;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        inicio = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        registrar();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        inicio = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        registrar();
+    }
+
+    private void registrar() {
+        SqlRequestStats stats = SqlRequestStats.atual();
+        if (stats != null) {
+            stats.registrarTempo(System.nanoTime() - inicio);
+        }
+    }
+}
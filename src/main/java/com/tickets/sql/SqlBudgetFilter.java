@@ -0,0 +1,118 @@
+package com.tickets.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Abre o SqlRequestStats do request e, no fim, registra statements e tempo de JDBC por endpoint.
+// Passar do orçamento ou repetir o mesmo SQL (N+1) gera WARN e conta numa métrica própria.
+// Só o thread do request é medido: o corpo de /orders/export e o feed SSE rodam em outro thread.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    public static final String HEADER_STATEMENTS = "X-SQL-Statements";
+    public static final String HEADER_TEMPO = "X-SQL-Time-Ms";
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Medidores> porEndpoint = new ConcurrentHashMap<>();
+
+    private record Medidores(DistributionSummary statements, Timer tempo, Counter acimaDoOrcamento, Counter repeticoes) {
+    }
+
+    @Autowired
+    public SqlBudgetFilter(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.iniciar();
+        request.setAttribute(SqlRequestStats.ATRIBUTO, stats);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlRequestStats.encerrar();
+            registrar(request, response, stats);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, HttpServletResponse response, SqlRequestStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return; // 404 sem controller: sem endpoint para etiquetar
+        }
+        String endpoint = request.getMethod() + " " + pattern;
+        int orcamento = properties.orcamentoPara(endpoint);
+        stats.definirOrcamento(endpoint, orcamento);
+
+        Medidores medidores = porEndpoint.computeIfAbsent(endpoint, e -> medidores(request.getMethod(), pattern.toString()));
+        medidores.statements().record(stats.statements());
+        medidores.tempo().record(stats.jdbcNanos(), TimeUnit.NANOSECONDS);
+        if (stats.statements() > orcamento) {
+            medidores.acimaDoOrcamento().increment();
+            logger.warn("SQL BUDGET: {} executou {} statements (orçamento {}).", endpoint, stats.statements(), orcamento);
+        }
+        if (stats.maiorRepeticao() >= properties.getRepeatedThreshold() && !properties.repeticaoPermitida(endpoint)) {
+            medidores.repeticoes().increment();
+            logger.warn("SQL N+1: {} executou {} vezes: {}", endpoint, stats.maiorRepeticao(), stats.sqlMaisRepetido());
+        }
+        // Respostas com corpo já receberam o header no SqlBudgetHeaderAdvice; aqui ficam 204/304/erros.
+        if (properties.isHeader() && !response.isCommitted()) {
+            escreverHeaders(response, stats);
+        }
+    }
+
+    static void escreverHeaders(HttpServletResponse response, SqlRequestStats stats) {
+        response.setHeader(HEADER_STATEMENTS, Integer.toString(stats.statements()));
+        response.setHeader(HEADER_TEMPO, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.jdbcNanos())));
+    }
+
+    private Medidores medidores(String method, String uri) {
+        return new Medidores(
+                DistributionSummary.builder("tickets.http.sql.statements")
+                        .description("Statements SQL por request")
+                        .tags("method", method, "uri", uri)
+                        .register(meterRegistry),
+                Timer.builder("tickets.http.sql.time")
+                        .description("Tempo de JDBC por request")
+                        .tags("method", method, "uri", uri)
+                        .register(meterRegistry),
+                Counter.builder("tickets.http.sql.budget.exceeded")
+                        .description("Requests acima do orçamento de statements do endpoint")
+                        .tags("method", method, "uri", uri)
+                        .register(meterRegistry),
+                Counter.builder("tickets.http.sql.repeated")
+                        .description("Requests que repetiram o mesmo SQL (suspeita de N+1)")
+                        .tags("method", method, "uri", uri)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,42 @@
+package com.tickets.sql;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.TimeUnit;
+
+// O conversor JSON faz flush ao escrever o corpo, e depois disso o filtro não consegue mais pôr header.
+@ControllerAdvice
+public class SqlBudgetHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlBudgetProperties properties;
+
+    @Autowired
+    public SqlBudgetHeaderAdvice(SqlBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isEnabled() && properties.isHeader();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlRequestStats stats = SqlRequestStats.atual();
+        if (stats != null) {
+            response.getHeaders().set(SqlBudgetFilter.HEADER_STATEMENTS, Integer.toString(stats.statements()));
+            response.getHeaders().set(SqlBudgetFilter.HEADER_TEMPO,
+                    Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.jdbcNanos())));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,85 @@
+package com.tickets.sql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "tickets.sql-budget")
+public class SqlBudgetProperties {
+
+    private boolean enabled = true;
+
+    // Devolve X-SQL-Statements e X-SQL-Time-Ms em cada resposta.
+    private boolean header = false;
+
+    // Statements por request quando não há valor em "endpoints".
+    private int defaultMaxStatements = 10;
+
+    // O mesmo SELECT repetido tantas vezes num request é tratado como N+1.
+    private int repeatedThreshold = 5;
+
+    // Endpoints em que a repetição é esperada (ex.: lotes que buscam ids da sequence a cada bloco).
+    private Set<String> repeatedAllowed = new HashSet<>();
+
+    // Orçamento de statements por endpoint, no formato "GET /orders/detalhe/{id}".
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int orcamentoPara(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultMaxStatements);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    public int getDefaultMaxStatements() {
+        return defaultMaxStatements;
+    }
+
+    public void setDefaultMaxStatements(int defaultMaxStatements) {
+        this.defaultMaxStatements = defaultMaxStatements;
+    }
+
+    public int getRepeatedThreshold() {
+        return repeatedThreshold;
+    }
+
+    public void setRepeatedThreshold(int repeatedThreshold) {
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    public boolean repeticaoPermitida(String endpoint) {
+        return repeatedAllowed.contains(endpoint);
+    }
+
+    public Set<String> getRepeatedAllowed() {
+        return repeatedAllowed;
+    }
+
+    public void setRepeatedAllowed(Set<String> repeatedAllowed) {
+        this.repeatedAllowed = repeatedAllowed;
+    }
+
+    public Map<String, Integer> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Integer> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
@@ -0,0 +1,105 @@
+package com.tickets.sql;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Contagem de statements e tempo de JDBC de um request HTTP. Fica num ThreadLocal durante o
+// request e como atributo do request depois dele (para o header e para os testes). Consultas que o
+// request espera em outros threads (shards em paralelo) registram no mesmo objeto, via noRequest.
+public final class SqlRequestStats {
+
+    public static final String ATRIBUTO = SqlRequestStats.class.getName();
+
+    private static final ThreadLocal<SqlRequestStats> ATUAL = new ThreadLocal<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final LongAdder jdbcNanos = new LongAdder();
+    private final Map<String, Integer> execucoesPorSql = new ConcurrentHashMap<>();
+    private int maiorRepeticao;
+    private String sqlMaisRepetido;
+    private String endpoint;
+    private int orcamento = -1;
+
+    static SqlRequestStats iniciar() {
+        SqlRequestStats stats = new SqlRequestStats();
+        ATUAL.set(stats);
+        return stats;
+    }
+
+    public static SqlRequestStats atual() {
+        return ATUAL.get();
+    }
+
+    static void encerrar() {
+        ATUAL.remove();
+    }
+
+    // Executa a ação com as estatísticas do request no thread atual e restaura as que estavam nele.
+    public static <T> T noRequest(SqlRequestStats stats, Supplier<T> acao) {
+        SqlRequestStats anterior = ATUAL.get();
+        if (stats == anterior) {
+            return acao.get();
+        }
+        ATUAL.set(stats);
+        try {
+            return acao.get();
+        } finally {
+            if (anterior == null) {
+                ATUAL.remove();
+            } else {
+                ATUAL.set(anterior);
+            }
+        }
+    }
+
+    void registrarStatement(String sql) {
+        statements.incrementAndGet();
+        if (!sql.regionMatches(true, 0, "select", 0, 6)) {
+            return; // INSERT/UPDATE repetidos são os lotes do JDBC batch, não N+1
+        }
+        int execucoes = execucoesPorSql.merge(sql, 1, Integer::sum);
+        synchronized (this) {
+            if (execucoes > maiorRepeticao) {
+                maiorRepeticao = execucoes;
+                sqlMaisRepetido = sql;
+            }
+        }
+    }
+
+    void registrarTempo(long nanos) {
+        jdbcNanos.add(nanos);
+    }
+
+    void definirOrcamento(String endpoint, int orcamento) {
+        this.endpoint = endpoint;
+        this.orcamento = orcamento;
+    }
+
+    public int statements() {
+        return statements.get();
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos.sum();
+    }
+
+    public synchronized int maiorRepeticao() {
+        return maiorRepeticao;
+    }
+
+    public synchronized String sqlMaisRepetido() {
+        return sqlMaisRepetido;
+    }
+
+    // Preenchidos no fim do request; endpoint nulo quando nenhum controller atendeu.
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public int orcamento() {
+        return orcamento;
+    }
+}
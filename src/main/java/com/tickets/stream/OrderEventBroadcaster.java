@@ -0,0 +1,323 @@
+package com.tickets.stream;
+
+import com.tickets.dto.OrderEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Fan-out do feed SSE de pedidos. Os eventos ficam numa janela circular única; cada assinante guarda
+// só o cursor do último evento enviado, então o "buffer" dele é a distância até o topo da janela e
+// assinante parado não custa thread nem fila. Publicar não bloqueia: grava na janela e acorda o
+// coordenador, que agenda o envio no pool só para quem está atrasado. Quem fica mais de uma janela
+// para trás, ou com um envio parado por mais de send-timeout, é desconectado pelo coordenador, sem
+// esperar o envio terminar, e pode retomar com Last-Event-ID enquanto o evento ainda estiver na janela.
+@Component
+public class OrderEventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventBroadcaster.class);
+
+    public static final String EVENTO_RESET = "RESET";
+
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong topo = new AtomicLong();
+    private final AtomicReferenceArray<Evento> janela;
+    private final int mascara;
+    private final int maximoAssinantes;
+    private final long timeoutMillis;
+    private final long timeoutEnvioNanos;
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean distribuicaoPendente = new AtomicBoolean();
+    private final ScheduledExecutorService coordenador;
+    private final ExecutorService envio;
+
+    private final Counter publicados;
+    private final Counter desconectadosPorAtraso;
+
+    private record Evento(long sequencia, OrderEvent dados) {
+    }
+
+    private static final class Assinante {
+        final SseEmitter emitter;
+        final AtomicBoolean agendado = new AtomicBoolean();
+        volatile long cursor;
+        volatile boolean resetPendente;
+        volatile boolean heartbeatPendente;
+        volatile boolean ativo = true;
+        // Envio em andamento: desde quando (System.nanoTime, 0 = nenhum) e em qual thread.
+        volatile long envioDesde;
+        Thread remetente;
+
+        Assinante(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+
+    @Autowired
+    public OrderEventBroadcaster(MeterRegistry meterRegistry,
+                                 @Value("${tickets.orders.stream.buffer-size:4096}") int tamanhoJanela,
+                                 @Value("${tickets.orders.stream.max-subscribers:10000}") int maximoAssinantes,
+                                 @Value("${tickets.orders.stream.sender-threads:4}") int threadsEnvio,
+                                 @Value("${tickets.orders.stream.heartbeat:30s}") Duration heartbeat,
+                                 @Value("${tickets.orders.stream.timeout:30m}") Duration timeout,
+                                 @Value("${tickets.orders.stream.send-timeout:10s}") Duration timeoutEnvio) {
+        int tamanho = Integer.highestOneBit(Math.max(2, tamanhoJanela - 1)) << 1;
+        this.janela = new AtomicReferenceArray<>(tamanho);
+        this.mascara = tamanho - 1;
+        this.maximoAssinantes = maximoAssinantes;
+        this.timeoutMillis = timeout.toMillis();
+        this.timeoutEnvioNanos = timeoutEnvio.toNanos();
+        this.coordenador = Executors.newSingleThreadScheduledExecutor(threads("order-stream-coordinator"));
+        this.envio = Executors.newFixedThreadPool(threadsEnvio, threads("order-stream-sender"));
+        coordenador.scheduleWithFixedDelay(this::marcarHeartbeat,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        long verificacao = Math.max(10, timeoutEnvio.toMillis() / 4);
+        coordenador.scheduleWithFixedDelay(this::verificarEnvios, verificacao, verificacao, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("tickets.orders.stream.subscribers", assinantes, Set::size)
+                .description("Assinantes conectados em /orders/stream")
+                .register(meterRegistry);
+        this.publicados = Counter.builder("tickets.orders.stream.events")
+                .description("Eventos publicados no feed de pedidos")
+                .register(meterRegistry);
+        this.desconectadosPorAtraso = Counter.builder("tickets.orders.stream.evicted")
+                .description("Assinantes desconectados por ficarem mais de uma janela atrás ou com envio parado")
+                .register(meterRegistry);
+    }
+
+    public void publicar(List<OrderEvent> eventos) {
+        for (OrderEvent dados : eventos) {
+            long sequencia = topo.incrementAndGet();
+            janela.set(indice(sequencia), new Evento(sequencia, dados));
+        }
+        publicados.increment(eventos.size());
+        if (distribuicaoPendente.compareAndSet(false, true)) {
+            coordenador.execute(this::distribuir);
+        }
+    }
+
+    // Optional vazio quando o limite de assinantes foi atingido.
+    public Optional<SseEmitter> assinar(String lastEventId) {
+        if (assinantes.size() >= maximoAssinantes) {
+            return Optional.empty();
+        }
+        long atual = topo.get();
+        long cursor = atual;
+        boolean reset = false;
+        if (lastEventId != null) {
+            long ultimo = sequenciaDe(lastEventId);
+            if (ultimo >= 0 && ultimo <= atual && atual - ultimo <= mascara) {
+                cursor = ultimo;
+            } else {
+                reset = true;
+            }
+        }
+        SseEmitter emitter = criarEmitter(timeoutMillis);
+        Assinante assinante = new Assinante(emitter, cursor);
+        assinante.resetPendente = reset;
+        emitter.onCompletion(() -> remover(assinante));
+        emitter.onTimeout(() -> {
+            remover(assinante);
+            emitter.complete();
+        });
+        emitter.onError(erro -> remover(assinante));
+        assinantes.add(assinante);
+        agendar(assinante);
+        return Optional.of(emitter);
+    }
+
+    SseEmitter criarEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    // O atraso é checado aqui, antes de agendar: um assinante preso num envio lento não chegaria a
+    // checar o próprio atraso.
+    private void distribuir() {
+        distribuicaoPendente.set(false);
+        long atual = topo.get();
+        for (Assinante assinante : assinantes) {
+            if (atual - assinante.cursor > mascara) {
+                desconectar(assinante, (atual - assinante.cursor) + " eventos atrás");
+            } else if (assinante.cursor < atual) {
+                agendar(assinante);
+            }
+        }
+    }
+
+    private void verificarEnvios() {
+        long agora = System.nanoTime();
+        for (Assinante assinante : assinantes) {
+            long desde = assinante.envioDesde;
+            if (desde != 0 && agora - desde > timeoutEnvioNanos) {
+                desconectar(assinante, "envio parado há " + TimeUnit.NANOSECONDS.toMillis(agora - desde) + "ms");
+            }
+        }
+    }
+
+    // Roda no coordenador, que não pode esperar o emitter: send e complete disputam o mesmo monitor.
+    // A thread presa no envio é interrompida e o complete vai para o pool de envio.
+    private void desconectar(Assinante assinante, String motivo) {
+        if (!assinantes.remove(assinante)) {
+            return;
+        }
+        assinante.ativo = false;
+        desconectadosPorAtraso.increment();
+        logger.warn("Assinante de /orders/stream desconectado: {}.", motivo);
+        synchronized (assinante) {
+            if (assinante.remetente != null) {
+                assinante.remetente.interrupt();
+            }
+        }
+        try {
+            envio.execute(assinante.emitter::complete);
+        } catch (RuntimeException e) {
+            logger.debug("Pool de envio encerrado; emitter do assinante desconectado não foi concluído.", e);
+        }
+    }
+
+    private void marcarHeartbeat() {
+        for (Assinante assinante : assinantes) {
+            assinante.heartbeatPendente = true;
+            agendar(assinante);
+        }
+    }
+
+    private void agendar(Assinante assinante) {
+        if (assinante.ativo && assinante.agendado.compareAndSet(false, true)) {
+            try {
+                envio.execute(() -> enviar(assinante));
+            } catch (RuntimeException e) {
+                assinante.agendado.set(false);
+            }
+        }
+    }
+
+    // Só uma thread por assinante de cada vez (flag agendado); o envio bloqueante de um cliente
+    // lento ocupa uma thread do pool, não o publicador, e por no máximo send-timeout.
+    private void enviar(Assinante assinante) {
+        synchronized (assinante) {
+            assinante.remetente = Thread.currentThread();
+        }
+        try {
+            if (assinante.resetPendente) {
+                assinante.resetPendente = false;
+                enviarEvento(assinante, SseEmitter.event().id(idDe(assinante.cursor)).name(EVENTO_RESET).data(""));
+            }
+            while (assinante.ativo) {
+                long atual = topo.get();
+                long proxima = assinante.cursor + 1;
+                if (proxima > atual) {
+                    break;
+                }
+                Evento evento = janela.get(indice(proxima));
+                if (atual - assinante.cursor > mascara || (evento != null && evento.sequencia() > proxima)) {
+                    desconectadosPorAtraso.increment();
+                    logger.warn("Assinante de /orders/stream desconectado: {} eventos atrás.", atual - assinante.cursor);
+                    remover(assinante);
+                    assinante.emitter.complete();
+                    return;
+                }
+                if (evento == null || evento.sequencia() != proxima) {
+                    break; // publicador ainda gravando esta posição; ele agenda de novo ao terminar
+                }
+                enviarEvento(assinante, SseEmitter.event()
+                        .id(idDe(proxima))
+                        .name(evento.dados().type().name())
+                        .data(evento.dados(), MediaType.APPLICATION_JSON));
+                assinante.cursor = proxima;
+            }
+            if (assinante.heartbeatPendente) {
+                assinante.heartbeatPendente = false;
+                enviarEvento(assinante, SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (Exception e) {
+            remover(assinante);
+        } finally {
+            assinante.envioDesde = 0;
+            synchronized (assinante) {
+                assinante.remetente = null;
+            }
+            // Interrupção de um desconectar() que chegou depois do fim do envio não passa para a próxima tarefa.
+            Thread.interrupted();
+            assinante.agendado.set(false);
+            if (assinante.ativo && assinante.cursor < topo.get()) {
+                agendar(assinante);
+            }
+        }
+    }
+
+    private void enviarEvento(Assinante assinante, SseEmitter.SseEventBuilder evento) throws IOException {
+        assinante.envioDesde = System.nanoTime();
+        assinante.emitter.send(evento);
+        assinante.envioDesde = 0;
+    }
+
+    private void remover(Assinante assinante) {
+        assinante.ativo = false;
+        assinantes.remove(assinante);
+    }
+
+    private int indice(long sequencia) {
+        return (int) (sequencia & mascara);
+    }
+
+    // O id carrega a época do processo: depois de um restart, Last-Event-ID antigo vira RESET.
+    private String idDe(long sequencia) {
+        return epoca + "-" + sequencia;
+    }
+
+    private long sequenciaDe(String id) {
+        String prefixo = epoca + "-";
+        if (!id.startsWith(prefixo)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(prefixo.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ThreadFactory threads(String nome) {
+        AtomicInteger contador = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, nome + "-" + contador.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        coordenador.shutdownNow();
+        envio.shutdownNow();
+        for (Assinante assinante : assinantes) {
+            remover(assinante);
+            assinante.emitter.complete();
+        }
+    }
+}
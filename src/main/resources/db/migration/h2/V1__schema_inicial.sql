@@ -0,0 +1,18 @@
+-- Mesmo esquema da versão MySQL, com os tipos que o H2Dialect gera (testes e teste de carga).
+create table users (
+    id_user bigint generated by default as identity,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    primary key (id_user),
+    constraint uk_users_email unique (email)
+);
+
+create table orders (
+    id_order bigint generated by default as identity,
+    item varchar(255) not null,
+    quantity integer,
+    value float(53),
+    user_id bigint not null,
+    primary key (id_order),
+    constraint fk_orders_user foreign key (user_id) references users (id_user)
+);
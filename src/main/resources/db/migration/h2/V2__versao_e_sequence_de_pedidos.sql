@@ -0,0 +1,9 @@
+-- Mesmas alterações da versão MySQL; aqui orders_seq é uma sequence de verdade.
+alter table users add column version bigint default 0 not null;
+
+alter table orders add column version bigint default 0 not null;
+alter table orders add column created_at timestamp(6) with time zone;
+alter table orders alter column id_order drop identity;
+
+create sequence orders_seq start with 50 increment by 50;
+alter sequence orders_seq restart with (select coalesce(max(id_order), 0) + 50 from orders);
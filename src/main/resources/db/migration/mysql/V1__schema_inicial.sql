@@ -0,0 +1,20 @@
+-- Esquema que o ddl-auto=update gerava antes das migrações (ids por auto_increment, sem version nem
+-- created_at), só com nomes legíveis nas constraints. Banco já existente sem schema_version é marcado
+-- nesta versão (baseline) e segue a partir da V2.
+create table users (
+    id_user bigint not null auto_increment,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    primary key (id_user),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table orders (
+    id_order bigint not null auto_increment,
+    item varchar(255) not null,
+    quantity integer,
+    value float(53),
+    user_id bigint not null,
+    primary key (id_order),
+    constraint fk_orders_user foreign key (user_id) references users (id_user)
+) engine=InnoDB;
@@ -0,0 +1,17 @@
+-- Concorrência otimista: linhas que já existem começam na versão 0.
+alter table users add column version bigint not null default 0;
+
+-- Ids de pedido passam a vir de orders_seq (allocationSize 50 em Order), não do auto_increment.
+-- created_at fica nulo nos pedidos antigos, que já estão fora da janela do ranking de itens.
+alter table orders
+    add column version bigint not null default 0,
+    add column created_at datetime(6),
+    modify id_order bigint not null;
+
+-- MySQL não tem sequence: o Hibernate usa esta tabela. O otimizador pooled entrega o bloco que termina
+-- no valor lido (valor - 49 até valor), então a semente é o maior id + 50 e o primeiro id novo é max + 1.
+create table orders_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into orders_seq select coalesce(max(id_order), 0) + 50 from orders;
@@ -0,0 +1,8 @@
+-- Um contador por tabela, incrementado na transação de cada escrita: o ETag dos GETs condicionais.
+create table table_versions (
+    table_name varchar(64) not null,
+    version bigint not null,
+    primary key (table_name)
+);
+
+insert into table_versions (table_name, version) values ('users', 0), ('orders', 0);
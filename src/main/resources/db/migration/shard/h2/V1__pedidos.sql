@@ -0,0 +1,14 @@
+-- Shard extra de pedidos: só orders e a sequence própria. users fica no banco principal, então
+-- user_id não tem chave estrangeira aqui; o OrderService confere o usuário antes de gravar.
+create table orders (
+    id_order bigint not null,
+    item varchar(255) not null,
+    quantity integer,
+    value float(53),
+    user_id bigint not null,
+    version bigint not null,
+    created_at timestamp(6) with time zone,
+    primary key (id_order)
+);
+
+create sequence orders_seq start with 1 increment by 50;
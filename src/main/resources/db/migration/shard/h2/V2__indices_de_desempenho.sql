@@ -0,0 +1,8 @@
+-- Pedidos de um usuário em ordem de id (detalhe-usuario) e totais por usuário só pelo índice.
+create index idx_orders_user_order on orders (user_id, id_order, quantity, value);
+
+-- Totais por item (group by item) sem ler a tabela.
+create index idx_orders_item_totais on orders (item, quantity, value);
+
+-- Carga do ranking de itens da última hora.
+create index idx_orders_created_at on orders (created_at);
@@ -0,0 +1,18 @@
+-- Shard extra de pedidos: só orders e a tabela de ids própria. users fica no banco principal, então
+-- user_id não tem chave estrangeira aqui; o OrderService confere o usuário antes de gravar.
+create table orders (
+    id_order bigint not null,
+    item varchar(255) not null,
+    quantity integer,
+    value float(53),
+    user_id bigint not null,
+    version bigint not null,
+    created_at datetime(6),
+    primary key (id_order)
+) engine=InnoDB;
+
+create table orders_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into orders_seq values (1);
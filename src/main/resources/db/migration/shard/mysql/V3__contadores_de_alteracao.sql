@@ -0,0 +1,8 @@
+-- Contador de alterações dos pedidos desta shard, incrementado na transação de cada escrita.
+create table table_versions (
+    table_name varchar(64) not null,
+    version bigint not null,
+    primary key (table_name)
+);
+
+insert into table_versions (table_name, version) values ('orders', 0);
@@ -0,0 +1,75 @@
+package com.tickets;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Banco criado pelo antigo ddl-auto=update, com dados, antes de a aplicação subir: as migrações
+// seguintes à baseline precisam deixá-lo válido para o Hibernate e com ids novos depois dos antigos.
+@SpringBootTest(properties = "tickets.test.db=legado")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class LegacySchemaStartupTest {
+
+    private static final long MAIOR_ID = 120;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void esquemaLegado(DynamicPropertyRegistry registry) {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:legado;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("create table users (id_user bigint generated by default as identity, email varchar(255) not null, "
+                + "name varchar(255) not null, primary key (id_user), constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email))");
+        jdbc.execute("create table orders (id_order bigint generated by default as identity, item varchar(255) not null, "
+                + "quantity integer, value float(53), user_id bigint not null, primary key (id_order), "
+                + "constraint FK32ql8ubntj5uh44ph9659tiih foreign key (user_id) references users)");
+        jdbc.update("insert into users (name, email) values ('Ana', 'ana@legado.com')");
+        jdbc.update("insert into orders (id_order, item, quantity, value, user_id) values (1, 'Show', 1, 10.0, 1), "
+                + "(?, 'Teatro', 2, 5.0, 1)", MAIOR_ID);
+    }
+
+    @Test
+    void pedidosNovosNaoColidemComOsAntigosEAntigosAceitamAVersao0() throws Exception {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            String criado = mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"item\":\"Cinema\",\"quantity\":1,\"value\":8.0,\"user\":{\"idUser\":1}}"))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(objectMapper.readTree(criado).get("idOrder").asLong());
+        }
+        assertThat(ids).hasSize(3).allMatch(id -> id > MAIOR_ID);
+
+        mvc.perform(get("/orders/detalhe/" + MAIOR_ID)).andExpect(jsonPath("$.version").value(0));
+        mvc.perform(put("/orders/" + MAIOR_ID).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Teatro\",\"quantity\":3,\"value\":5.0,\"version\":0}"))
+                .andExpect(status().isNoContent());
+        mvc.perform(put("/users/1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ana Lima\",\"email\":\"ana@legado.com\",\"version\":0}"))
+                .andExpect(status().isNoContent());
+    }
+}
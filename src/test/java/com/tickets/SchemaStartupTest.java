@@ -0,0 +1,45 @@
+package com.tickets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sobe a aplicação inteira num H2 vazio: migrações aplicadas, ddl-auto=validate aceitando o esquema
+// e tempo de subida dentro do orçamento (antes, o ddl-auto=update inspecionava o esquema a cada boot).
+@SpringBootTest(properties = "tickets.test.db=startup")
+@ActiveProfiles("test")
+class SchemaStartupTest {
+
+    private static final Duration ORCAMENTO_SUBIDA = Duration.ofSeconds(30);
+
+    @TestConfiguration
+    static class TempoDeSubida {
+        static final AtomicReference<Duration> tempo = new AtomicReference<>();
+
+        @Bean
+        ApplicationListener<ApplicationReadyEvent> medirSubida() {
+            return evento -> tempo.set(evento.getTimeTaken());
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sobeComEsquemaMigradoEValidado() {
+        assertThat(jdbcTemplate.queryForList("select version from schema_version order by version", Integer.class))
+                .containsExactly(1, 2, 3, 4);
+        assertThat(TempoDeSubida.tempo.get()).isNotNull().isLessThan(ORCAMENTO_SUBIDA);
+    }
+}
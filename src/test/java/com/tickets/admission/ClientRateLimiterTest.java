@@ -0,0 +1,45 @@
+package com.tickets.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientRateLimiterTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    @Test
+    void aceitaRajadaERecusaAteOTempoRepor() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 5, 1024);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.permitir("a", 0)).isTrue();
+        }
+        assertThat(limiter.permitir("a", 0)).isFalse();
+
+        // 10 req/s: uma ficha a cada 100ms.
+        assertThat(limiter.permitir("a", SEGUNDO / 10 - 1)).isFalse();
+        assertThat(limiter.permitir("a", SEGUNDO / 10)).isTrue();
+        assertThat(limiter.permitir("a", SEGUNDO / 10)).isFalse();
+    }
+
+    @Test
+    void clientesTemCotasSeparadas() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 1024);
+
+        assertThat(limiter.permitir("10.0.0.1", 0)).isTrue();
+        assertThat(limiter.permitir("10.0.0.1", 0)).isFalse();
+        assertThat(limiter.permitir("10.0.0.2", 0)).isTrue();
+    }
+
+    @Test
+    void clienteParadoNaoAcumulaMaisQueARajada() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 1024);
+
+        long depois = 60 * SEGUNDO;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.permitir("a", depois)).isTrue();
+        }
+        assertThat(limiter.permitir("a", depois)).isFalse();
+    }
+}
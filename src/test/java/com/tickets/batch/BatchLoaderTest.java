@@ -0,0 +1,127 @@
+package com.tickets.batch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchLoaderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<List<Long>> consultas = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void buscasConcorrentesViramPoucasConsultasEChavesRepetidasCompartilhamResultado() throws Exception {
+        BatchLoader<Long, String> loader = new BatchLoaders(Duration.ofMillis(50), 100, registry)
+                .criar("teste", this::carregar);
+        int chamadas = 64;
+
+        List<Optional<String>> resultados = emParalelo(chamadas, i -> loader.buscar(i % 16L));
+
+        for (int i = 0; i < chamadas; i++) {
+            long chave = i % 16L;
+            assertThat(resultados.get(i)).isEqualTo(chave < 12 ? Optional.of("valor-" + chave) : Optional.empty());
+        }
+        assertThat(consultas.size()).isLessThan(chamadas);
+        consultas.forEach(chaves -> assertThat(chaves).doesNotHaveDuplicates());
+        double agrupadas = registry.get("tickets.batch-loader.coalesced").tag("tipo", "lote").counter().count();
+        double compartilhadas = registry.get("tickets.batch-loader.coalesced").tag("tipo", "em-voo").counter().count();
+        assertThat(agrupadas + compartilhadas).isEqualTo(chamadas - consultas.size());
+        assertThat(registry.get("tickets.batch-loader.batch.size").summary().count()).isEqualTo(consultas.size());
+    }
+
+    @Test
+    void loteCheioExecutaSemEsperarAJanela() throws Exception {
+        BatchLoader<Long, String> loader = new BatchLoaders(Duration.ofMinutes(1), 4, registry)
+                .criar("teste", this::carregar);
+
+        long inicio = System.nanoTime();
+        List<Optional<String>> resultados = emParalelo(4, i -> loader.buscar((long) i));
+
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicio)).isLessThan(10);
+        assertThat(resultados).containsExactly(Optional.of("valor-0"), Optional.of("valor-1"),
+                Optional.of("valor-2"), Optional.of("valor-3"));
+        assertThat(consultas).hasSize(1);
+        assertThat(consultas.get(0)).containsExactlyInAnyOrder(0L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void falhaNaCargaChegaATodasAsChamadasDoLote() throws Exception {
+        BatchLoader<Long, String> loader = new BatchLoaders(Duration.ofMillis(50), 100, registry)
+                .criar("teste", chaves -> {
+                    throw new IllegalStateException("banco fora");
+                });
+
+        List<Throwable> erros = new ArrayList<>();
+        for (Future<Optional<String>> futuro : submeter(3, i -> loader.buscar((long) i))) {
+            try {
+                futuro.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                erros.add(e.getCause());
+            }
+        }
+
+        assertThat(erros).hasSize(3).allSatisfy(erro ->
+                assertThat(erro).isInstanceOf(IllegalStateException.class).hasMessage("banco fora"));
+        // Nada fica preso em voo: a próxima busca consulta de novo (e falha de novo).
+        assertThatThrownBy(() -> loader.buscar(0L)).isInstanceOf(IllegalStateException.class);
+        assertThat(registry.get("tickets.batch-loader.batch.size").summary().count()).isGreaterThanOrEqualTo(2);
+    }
+
+    private Map<Long, String> carregar(List<Long> chaves) {
+        consultas.add(chaves);
+        Map<Long, String> valores = new HashMap<>();
+        for (Long chave : chaves) {
+            if (chave < 12) {
+                valores.put(chave, "valor-" + chave);
+            }
+        }
+        return valores;
+    }
+
+    private interface Busca {
+        Optional<String> executar(int i);
+    }
+
+    private List<Optional<String>> emParalelo(int chamadas, Busca busca) throws Exception {
+        List<Optional<String>> resultados = new ArrayList<>();
+        for (Future<Optional<String>> futuro : submeter(chamadas, busca)) {
+            resultados.add(futuro.get(10, TimeUnit.SECONDS));
+        }
+        return resultados;
+    }
+
+    // Todas as chamadas partem juntas, cada uma no seu thread.
+    private List<Future<Optional<String>>> submeter(int chamadas, Busca busca) {
+        ExecutorService executor = Executors.newFixedThreadPool(chamadas);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Optional<String>>> futuros = new ArrayList<>();
+        for (int i = 0; i < chamadas; i++) {
+            int indice = i;
+            Callable<Optional<String>> tarefa = () -> {
+                largada.await();
+                return busca.executar(indice);
+            };
+            futuros.add(executor.submit(tarefa));
+        }
+        largada.countDown();
+        executor.shutdown();
+        return futuros;
+    }
+}
@@ -0,0 +1,71 @@
+package com.tickets.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Update e delete tiram o usuário das duas entradas (users-by-id e users-by-email), inclusive a do
+// email antigo quando o email muda.
+@SpringBootTest(properties = "tickets.test.db=cache-evicao")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class UserCacheEvictionTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void updateEDeleteRemovemAsEntradasPorIdEPorEmail() throws Exception {
+        long id = objectMapper.readTree(mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Davi\",\"email\":\"davi@cache.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("idUser").asLong();
+        aquecer(id, "davi@cache.com");
+
+        mvc.perform(put("/users/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Davi Reis\",\"email\":\"davi.reis@cache.com\",\"version\":0}"))
+                .andExpect(status().isNoContent());
+        assertThat(tamanho("users-by-id")).isZero();
+        assertThat(tamanho("users-by-email")).isZero();
+        mvc.perform(get("/users/email/davi@cache.com")).andExpect(status().isNotFound());
+        mvc.perform(get("/users/detalhe-usuario/" + id)).andExpect(jsonPath("$.name").value("Davi Reis"));
+
+        aquecer(id, "davi.reis@cache.com");
+        mvc.perform(delete("/users/" + id).param("version", "1")).andExpect(status().isNoContent());
+        assertThat(tamanho("users-by-id")).isZero();
+        assertThat(tamanho("users-by-email")).isZero();
+        mvc.perform(get("/users/email/davi.reis@cache.com")).andExpect(status().isNotFound());
+        mvc.perform(get("/users/detalhe-usuario/" + id)).andExpect(status().isNotFound());
+    }
+
+    private void aquecer(long id, String email) throws Exception {
+        mvc.perform(get("/users/detalhe-usuario/" + id)).andExpect(status().isOk());
+        mvc.perform(get("/users/email/" + email)).andExpect(status().isOk());
+        assertThat(tamanho("users-by-id")).isEqualTo(1);
+        assertThat(tamanho("users-by-email")).isEqualTo(1);
+    }
+
+    private double tamanho(String cache) {
+        return meterRegistry.get("cache.size").tag("cache", cache).gauge().value();
+    }
+}
@@ -0,0 +1,79 @@
+package com.tickets.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A "réplica" é um H2 separado que nunca recebe as escritas: faz o papel de uma réplica atrasada.
+@SpringBootTest(properties = "tickets.test.db=replica-primario")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class UserCacheReplicaTest {
+
+    private static final String REPLICA =
+            "jdbc:h2:mem:replica-atrasada;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA, "sa", ""));
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        replica.execute("create table if not exists users (id_user bigint primary key, version bigint not null, "
+                + "email varchar(255) not null, name varchar(255) not null)");
+        replica.execute("create table if not exists orders (id_order bigint primary key, item varchar(255) not null, "
+                + "quantity integer, value float(53), user_id bigint not null, version bigint not null, "
+                + "created_at timestamp(6) with time zone)");
+        replica.execute("create table if not exists table_versions (table_name varchar(64) primary key, "
+                + "version bigint not null)");
+        replica.execute("merge into table_versions key (table_name) values ('users', 0), ('orders', 0)");
+        registry.add("tickets.datasource.replicas[0].url", () -> REPLICA);
+    }
+
+    @Test
+    void renameNaoFicaNoCacheComONomeDaReplicaAtrasada() throws Exception {
+        MvcResult criado = mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ana\",\"email\":\"ana@replica.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = json(criado).get("idUser").asLong();
+        replica.update("insert into users (id_user, version, email, name) values (?, 0, 'ana@replica.com', 'Ana')", id);
+
+        mvc.perform(put("/users/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ana Lima\",\"email\":\"ana@replica.com\",\"version\":0}"))
+                .andExpect(status().isNoContent());
+
+        // Listagem lê da réplica, que ainda tem o nome antigo; o cache é carregado do primário.
+        JsonNode pagina = json(mvc.perform(get("/users")).andExpect(status().isOk()).andReturn());
+        assertThat(pagina.get("items").get(0).get("name").asText()).isEqualTo("Ana");
+        JsonNode porEmail = json(mvc.perform(get("/users/email/ana@replica.com")).andExpect(status().isOk()).andReturn());
+        assertThat(porEmail.get("name").asText()).isEqualTo("Ana Lima");
+        JsonNode detalhe = json(mvc.perform(get("/users/detalhe-usuario/" + id)).andExpect(status().isOk()).andReturn());
+        assertThat(detalhe.get("name").asText()).isEqualTo("Ana Lima");
+    }
+
+    private JsonNode json(MvcResult resultado) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,107 @@
+package com.tickets.cache;
+
+import com.tickets.dto.UserSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UserCache cache = new UserCache(100, Duration.ofMinutes(10), registry);
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @Test
+    void segundaBuscaVemDoCacheEUsuarioInexistenteNaoECacheado() {
+        UserSummary ana = new UserSummary(1L, "Ana", "ana@tickets.com", 0L);
+
+        assertThat(cache.buscarPorId(1L, id -> carregar(ana))).contains(ana);
+        assertThat(cache.buscarPorId(1L, id -> carregar(ana))).contains(ana);
+        assertThat(cache.buscarPorId(2L, id -> carregar(null))).isEmpty();
+        assertThat(cache.buscarPorId(2L, id -> carregar(null))).isEmpty();
+
+        assertThat(cargas).hasValue(3);
+    }
+
+    // A carga não segura o mapa: a invalidação da mesma chave termina enquanto a consulta está parada,
+    // e o valor lido antes dela não fica no cache.
+    @Test
+    void invalidacaoDuranteACargaNaoEsperaENaoDeixaValorVelho() throws Exception {
+        UserSummary antigo = new UserSummary(1L, "Ana", "ana@tickets.com", 0L);
+        UserSummary novo = new UserSummary(1L, "Ana Lima", "ana@tickets.com", 1L);
+        CountDownLatch cargaIniciada = new CountDownLatch(1);
+        CountDownLatch liberarCarga = new CountDownLatch(1);
+
+        CompletableFuture<Optional<UserSummary>> busca = CompletableFuture.supplyAsync(() ->
+                cache.buscarPorId(1L, id -> {
+                    cargaIniciada.countDown();
+                    aguardar(liberarCarga);
+                    return carregar(antigo);
+                }));
+        assertThat(cargaIniciada.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture.runAsync(() -> cache.invalidar(1L)).get(5, TimeUnit.SECONDS);
+        liberarCarga.countDown();
+
+        assertThat(busca.get(10, TimeUnit.SECONDS)).contains(antigo);
+        assertThat(cache.buscarPorId(1L, id -> carregar(novo))).contains(novo);
+        assertThat(cache.buscarPorId(1L, id -> carregar(antigo))).contains(novo);
+    }
+
+    // O email antigo sai do cache pela invalidação do id, mesmo que o usuário já tenha outro email.
+    @Test
+    void invalidacaoRemoveOsEmailsCacheadosDoId() {
+        UserSummary ana = new UserSummary(1L, "Ana", "ana@tickets.com", 0L);
+        UserSummary bia = new UserSummary(2L, "Bia", "bia@tickets.com", 0L);
+        UserSummary anaRenomeada = new UserSummary(1L, "Ana", "ana.lima@tickets.com", 1L);
+        cache.buscarPorEmail("ana@tickets.com", email -> carregar(ana));
+        cache.buscarPorEmail("bia@tickets.com", email -> carregar(bia));
+
+        cache.invalidar(1L);
+
+        assertThat(cache.buscarPorEmail("ana@tickets.com", email -> carregar(null))).isEmpty();
+        assertThat(cache.buscarPorEmail("ana.lima@tickets.com", email -> carregar(anaRenomeada)))
+                .contains(anaRenomeada);
+        assertThat(cache.buscarPorEmail("bia@tickets.com", email -> carregar(null))).contains(bia);
+        assertThat(cargas).hasValue(4);
+    }
+
+    // As cargas rodam fora do Caffeine, mas aparecem nas métricas do cache como se fossem dele.
+    @Test
+    void cargasEntramNasMetricasDoCache() {
+        UserSummary ana = new UserSummary(1L, "Ana", "ana@tickets.com", 0L);
+        cache.buscarPorId(1L, id -> carregar(ana));
+        cache.buscarPorId(1L, id -> carregar(ana));
+        cache.buscarPorId(2L, id -> carregar(null));
+
+        assertThat(registry.get("cache.load").tags("cache", "users-by-id", "result", "success")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.load").tags("cache", "users-by-id", "result", "failure")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.load.duration").tags("cache", "users-by-id")
+                .timeGauge().value()).isPositive();
+        assertThat(registry.get("cache.gets").tags("cache", "users-by-id", "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    private Optional<UserSummary> carregar(UserSummary user) {
+        cargas.incrementAndGet();
+        return Optional.ofNullable(user);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
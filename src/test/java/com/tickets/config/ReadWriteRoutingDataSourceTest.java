@@ -0,0 +1,127 @@
+package com.tickets.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dois H2 em memória fazem o papel de primário e réplica; cada um responde com o próprio nome.
+class ReadWriteRoutingDataSourceTest {
+
+    private ReadWriteRoutingDataSource routing;
+
+    @AfterEach
+    void fechar() {
+        routing.close();
+    }
+
+    @Test
+    void leituraVaiParaReplicaEEscritaParaPrimario() {
+        DataSource dataSource = montar(banco("primary"), banco("replica"));
+
+        assertThat(origem(dataSource, false)).isEqualTo("primary");
+        assertThat(origem(dataSource, true)).isEqualTo("replica");
+        assertThat(new JdbcTemplate(dataSource).queryForObject("select nome from origem", String.class))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    void replicasSaoUsadasEmRodizio() {
+        DataSource dataSource = montar(banco("primary"), banco("replica-a"), banco("replica-b"));
+
+        assertThat(List.of(origem(dataSource, true), origem(dataSource, true), origem(dataSource, true)))
+                .containsExactly("replica-a", "replica-b", "replica-a");
+    }
+
+    @Test
+    void replicaForaDoArCaiNoPrimarioAteVoltar() {
+        ReplicaInstavel replica = new ReplicaInstavel(banco("replica"));
+        DataSource dataSource = montar(banco("primary"), replica);
+
+        replica.disponivel = false;
+        assertThat(origem(dataSource, true)).isEqualTo("primary");
+        assertThat(routing.replicasSaudaveis()).isZero();
+
+        replica.disponivel = true;
+        assertThat(origem(dataSource, true)).isEqualTo("primary");
+        routing.verificarReplicas();
+        assertThat(origem(dataSource, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void conexaoComCredenciaisSegueAMesmaRota() {
+        DataSource dataSource = montar(banco("primary"), banco("replica"));
+        TransactionTemplate leitura = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        leitura.setReadOnly(true);
+
+        assertThat(origemComCredenciais()).isEqualTo("primary");
+        String naLeitura = leitura.execute(status -> origemComCredenciais());
+        assertThat(naLeitura).isEqualTo("replica");
+    }
+
+    private String origemComCredenciais() {
+        try (Connection connection = routing.getConnection("sa", "");
+             var resultado = connection.createStatement().executeQuery("select nome from origem")) {
+            resultado.next();
+            return resultado.getString(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private DataSource montar(DataSource primary, DataSource... replicas) {
+        routing = new ReadWriteRoutingDataSource(primary, List.of(replicas), Duration.ofHours(1));
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static String origem(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transacao = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transacao.setReadOnly(readOnly);
+        return transacao.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select nome from origem", String.class));
+    }
+
+    private static DataSource banco(String nome) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + nome + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table origem (nome varchar(32))");
+        jdbc.update("insert into origem values (?)", nome);
+        return dataSource;
+    }
+
+    private static class ReplicaInstavel extends AbstractDataSource {
+
+        private final DataSource alvo;
+        private volatile boolean disponivel = true;
+
+        ReplicaInstavel(DataSource alvo) {
+            this.alvo = alvo;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!disponivel) {
+                throw new SQLException("réplica fora do ar");
+            }
+            return alvo.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
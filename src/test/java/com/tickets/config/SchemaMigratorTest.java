@@ -0,0 +1,96 @@
+package com.tickets.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// H2 em modo MySQL com as migrações de db/migration/h2, as mesmas que o teste de carga usa.
+class SchemaMigratorTest {
+
+    private static final String LOCALIZACAO = "classpath:db/migration/{vendor}";
+
+    private final DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID()
+            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    @Test
+    void bancoVazioRecebeTodasAsMigracoesUmaVez() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(dataSource, LOCALIZACAO);
+
+        assertThat(migrator.migrar()).isEqualTo(4);
+        assertThat(migrator.migrar()).isZero();
+        assertThat(jdbc.queryForList("select version from schema_version order by version", Integer.class))
+                .containsExactly(1, 2, 3, 4);
+    }
+
+    // DDL que o Hibernate gerava com ddl-auto=update, com os nomes de constraint dele, e dados já gravados.
+    @Test
+    void esquemaCriadoPeloDdlAutoViraBaselineERecebeAsVersoesSeguintes() throws SQLException {
+        jdbc.execute("create table users (id_user bigint generated by default as identity, email varchar(255) not null, "
+                + "name varchar(255) not null, primary key (id_user))");
+        jdbc.execute("alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email)");
+        jdbc.execute("create table orders (id_order bigint generated by default as identity, item varchar(255) not null, "
+                + "quantity integer, value float(53), user_id bigint not null, primary key (id_order))");
+        jdbc.execute("alter table orders add constraint FK32ql8ubntj5uh44ph9659tiih foreign key (user_id) references users");
+        jdbc.update("insert into users (name, email) values ('Ana', 'ana@legado.com')");
+        jdbc.update("insert into orders (item, quantity, value, user_id) values ('Show', 1, 10.0, 1), ('Teatro', 2, 5.0, 1)");
+        jdbc.update("insert into orders (id_order, item, quantity, value, user_id) values (120, 'Cinema', 1, 8.0, 1)");
+
+        assertThat(new SchemaMigrator(dataSource, LOCALIZACAO).migrar()).isEqualTo(3);
+        assertThat(jdbc.queryForList("select description from schema_version order by version", String.class))
+                .containsExactly("<< baseline >>", "versao e sequence de pedidos", "indices de desempenho",
+                        "contadores de alteracao");
+        assertThat(jdbc.queryForList("select version from orders order by id_order", Long.class)).containsExactly(0L, 0L, 0L);
+        assertThat(jdbc.queryForObject("select version from users", Long.class)).isZero();
+        assertThat(jdbc.queryForObject("select count(*) from orders where created_at is null", Long.class)).isEqualTo(3);
+        // O pooled entrega o bloco que termina no valor lido: próximos ids de 121 a 170.
+        assertThat(jdbc.queryForObject("select next value for orders_seq", Long.class)).isEqualTo(170);
+    }
+
+    @Test
+    void migracaoAlteradaDepoisDeAplicadaImpedeASubida() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(dataSource, LOCALIZACAO);
+        migrator.migrar();
+        jdbc.update("update schema_version set checksum = 42 where version = 2");
+
+        assertThatThrownBy(migrator::migrar).isInstanceOf(IllegalStateException.class).hasMessageContaining("V2");
+    }
+
+    @Test
+    void consultasPrincipaisUsamOsIndices() throws SQLException {
+        new SchemaMigrator(dataSource, LOCALIZACAO).migrar();
+        jdbc.update("insert into users (name, email, version) values ('a', 'a@x', 0)");
+        for (int i = 0; i < 200; i++) {
+            jdbc.update("insert into orders (id_order, item, quantity, value, user_id, version, created_at) "
+                    + "values (?, ?, 1, 10.0, 1, 0, current_timestamp)", i, "item " + (i % 10));
+        }
+        jdbc.execute("analyze");
+
+        // Pedidos do usuário em ordem (detalhe-usuario) e totais por usuário.
+        assertThat(plano("select o.id_order, o.quantity, o.value from orders o where o.user_id = 1 order by o.id_order"))
+                .contains("idx_orders_user_order");
+        // Totais por item.
+        assertThat(plano("select o.item, count(*), sum(o.quantity), sum(o.quantity * o.value) from orders o group by o.item"))
+                .contains("idx_orders_item_totais");
+        // Carga do ranking da última hora.
+        assertThat(plano("select o.id_order from orders o where o.created_at >= current_timestamp - interval '1' hour"))
+                .contains("idx_orders_created_at");
+        // Listagem por cursor segue a chave primária.
+        assertThat(plano("select o.id_order from orders o where o.id_order > 10 order by o.id_order limit 50"))
+                .containsIgnoringCase("primary_key");
+    }
+
+    private String plano(String sql) {
+        return jdbc.queryForObject("explain " + sql, String.class).toLowerCase();
+    }
+}
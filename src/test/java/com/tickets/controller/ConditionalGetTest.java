@@ -0,0 +1,137 @@
+package com.tickets.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// O ETag vem dos contadores de alteração das tabelas lidas: sem escrita no meio dá 304, e qualquer escrita
+// nelas (PUT, DELETE, pedido novo) muda o ETag sem depender de estado da instância.
+@SpringBootTest(properties = "tickets.test.db=etag")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void detalheDoPedidoDa304EMudaDepoisDoPutEDoDelete() throws Exception {
+        long userId = criarUsuario("Pedro", "pedro@etag.com");
+        long orderId = criarPedido("Show", 2, 100.0, userId);
+        String url = "/orders/detalhe/" + orderId;
+
+        String etag = etagDe(mvc.perform(get(url)).andExpect(status().isOk()).andReturn());
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mvc.perform(put("/orders/" + orderId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Show extra\",\"quantity\":3,\"value\":150.0,\"version\":0}"))
+                .andExpect(status().isNoContent());
+        MvcResult depoisDoPut = mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etagNovo = etagDe(depoisDoPut);
+        assertThat(etagNovo).isNotEqualTo(etag);
+        assertThat(json(depoisDoPut).get("item").asText()).isEqualTo("Show extra");
+
+        mvc.perform(delete("/orders/" + orderId).param("version", "1"))
+                .andExpect(status().isNoContent());
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etagNovo))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void paginaEBuscaPorEmailDeUsuariosMudamDepoisDoRename() throws Exception {
+        long userId = criarUsuario("Rita", "rita@etag.com");
+        String email = "/users/email/rita@etag.com";
+
+        String etagPagina = etagDe(mvc.perform(get("/users")).andExpect(status().isOk()).andReturn());
+        String etagEmail = etagDe(mvc.perform(get(email)).andExpect(status().isOk()).andReturn());
+        mvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, etagPagina))
+                .andExpect(status().isNotModified());
+        mvc.perform(get(email).header(HttpHeaders.IF_NONE_MATCH, etagEmail))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(put("/users/" + userId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Rita Souza\",\"email\":\"rita@etag.com\",\"version\":0}"))
+                .andExpect(status().isNoContent());
+
+        MvcResult pagina = mvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, etagPagina))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(etagDe(pagina)).isNotEqualTo(etagPagina);
+        MvcResult porEmail = mvc.perform(get(email).header(HttpHeaders.IF_NONE_MATCH, etagEmail))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(etagDe(porEmail)).isNotEqualTo(etagEmail);
+        assertThat(json(porEmail).get("name").asText()).isEqualTo("Rita Souza");
+    }
+
+    @Test
+    void detalheDoUsuarioMudaComPedidoNovo() throws Exception {
+        long userId = criarUsuario("Caio", "caio@etag.com");
+        criarPedido("Teatro", 1, 80.0, userId);
+        String url = "/users/detalhe-usuario/" + userId;
+
+        String etag = etagDe(mvc.perform(get(url)).andExpect(status().isOk()).andReturn());
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        criarPedido("Cinema", 2, 40.0, userId);
+        MvcResult depois = mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(etagDe(depois)).isNotEqualTo(etag);
+        assertThat(json(depois).get("orders")).hasSize(2);
+    }
+
+    private long criarUsuario(String nome, String email) throws Exception {
+        MvcResult resultado = mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + nome + "\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return json(resultado).get("idUser").asLong();
+    }
+
+    private long criarPedido(String item, int quantity, double value, long userId) throws Exception {
+        MvcResult resultado = mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"" + item + "\",\"quantity\":" + quantity + ",\"value\":" + value
+                                + ",\"user\":{\"idUser\":" + userId + "}}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return json(resultado).get("idOrder").asLong();
+    }
+
+    private static String etagDe(MvcResult resultado) {
+        String etag = resultado.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+
+    private JsonNode json(MvcResult resultado) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,131 @@
+package com.tickets.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tickets.dto.CursorPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Cada teste começa a paginação logo antes do primeiro id que criou, então os dados dos outros
+// testes (mesmo banco) não interferem.
+@SpringBootTest(properties = "tickets.test.db=cursor")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class CursorPagingTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void cursorCodificaOUltimoIdDaPaginaEUltimaPaginaNaoTemCursor() throws Exception {
+        long userId = criarUsuario("Nina", "nina@cursor.com");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(criarPedido(userId, "Show " + i));
+        }
+
+        JsonNode primeira = pagina("/orders", CursorPage.encode(ids.get(0) - 1), 2);
+        assertThat(idsDe(primeira, "idOrder")).containsExactly(ids.get(0), ids.get(1));
+        String cursor = primeira.get("nextCursor").asText();
+        assertThat(cursor).isEqualTo(CursorPage.encode(ids.get(1)));
+        assertThat(CursorPage.decode(cursor)).isEqualTo(ids.get(1));
+        // Mesmo cursor, mesma página: a ordem é pela chave primária, não pela posição.
+        assertThat(pagina("/orders", CursorPage.encode(ids.get(0) - 1), 2)).isEqualTo(primeira);
+
+        JsonNode ultima = pagina("/orders", CursorPage.encode(ids.get(3)), 2);
+        assertThat(idsDe(ultima, "idOrder")).containsExactly(ids.get(4));
+        assertThat(ultima.get("nextCursor").isNull()).isTrue();
+
+        // Página exatamente cheia no fim: a linha extra não existe, então também não há cursor.
+        JsonNode cheia = pagina("/orders", CursorPage.encode(ids.get(2)), 2);
+        assertThat(idsDe(cheia, "idOrder")).containsExactly(ids.get(3), ids.get(4));
+        assertThat(cheia.get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    void cursorInvalidoRecebe400() throws Exception {
+        mvc.perform(get("/orders").param("cursor", "não é base64")).andExpect(status().isBadRequest());
+        mvc.perform(get("/orders").param("cursor", "AAAA")).andExpect(status().isBadRequest());
+        mvc.perform(get("/users").param("cursor", "AAAA")).andExpect(status().isBadRequest());
+    }
+
+    // Inserts e deletes entre as requisições não repetem nem pulam pedidos: o cursor é o último id
+    // visto, não um offset.
+    @Test
+    void percorrerVariasPaginasComEscritasEntreAsRequisicoes() throws Exception {
+        long userId = criarUsuario("Otto", "otto@cursor.com");
+        List<Long> criados = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            criados.add(criarPedido(userId, "Peça " + i));
+        }
+
+        JsonNode p1 = pagina("/orders", CursorPage.encode(criados.get(0) - 1), 3);
+        mvc.perform(delete("/orders/" + criados.get(3)).param("version", "0")).andExpect(status().isNoContent());
+        long extra1 = criarPedido(userId, "Peça extra 1");
+        long extra2 = criarPedido(userId, "Peça extra 2");
+        JsonNode p2 = pagina("/orders", p1.get("nextCursor").asText(), 3);
+        long extra3 = criarPedido(userId, "Peça extra 3");
+        JsonNode p3 = pagina("/orders", p2.get("nextCursor").asText(), 3);
+
+        assertThat(idsDe(p1, "idOrder")).containsExactly(criados.get(0), criados.get(1), criados.get(2));
+        assertThat(idsDe(p2, "idOrder")).containsExactly(criados.get(4), criados.get(5), extra1);
+        assertThat(idsDe(p3, "idOrder")).containsExactly(extra2, extra3);
+        assertThat(p3.get("nextCursor").isNull()).isTrue();
+
+        // A última página de usuários continua do mesmo cursor quando chegam linhas novas.
+        long u1 = criarUsuario("Pia", "pia@cursor.com");
+        JsonNode usuarios = pagina("/users", CursorPage.encode(u1 - 1), 1);
+        assertThat(idsDe(usuarios, "idUser")).containsExactly(u1);
+        assertThat(usuarios.get("nextCursor").isNull()).isTrue();
+        long u2 = criarUsuario("Rui", "rui@cursor.com");
+        assertThat(idsDe(pagina("/users", CursorPage.encode(u1), 1), "idUser")).containsExactly(u2);
+    }
+
+    private JsonNode pagina(String url, String cursor, int limite) throws Exception {
+        return json(mvc.perform(get(url).param("cursor", cursor).param("limit", String.valueOf(limite)))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+
+    private static List<Long> idsDe(JsonNode pagina, String campo) {
+        List<Long> ids = new ArrayList<>();
+        pagina.get("items").forEach(item -> ids.add(item.get(campo).asLong()));
+        return ids;
+    }
+
+    private long criarUsuario(String name, String email) throws Exception {
+        return json(mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn()).get("idUser").asLong();
+    }
+
+    private long criarPedido(long userId, String item) throws Exception {
+        return json(mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"" + item + "\",\"quantity\":1,\"value\":5.0,\"user\":{\"idUser\":" + userId + "}}"))
+                .andExpect(status().isCreated())
+                .andReturn()).get("idOrder").asLong();
+    }
+
+    private JsonNode json(MvcResult resultado) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+}
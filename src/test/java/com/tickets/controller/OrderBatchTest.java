@@ -0,0 +1,68 @@
+package com.tickets.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Lote inválido é recusado inteiro antes de qualquer INSERT.
+@SpringBootTest(properties = "tickets.test.db=lote")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class OrderBatchTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void loteInvalidoRecebe400ENaoGravaNada() throws Exception {
+        long userId = json(mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Gil\",\"email\":\"gil@lote.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn()).get("idUser").asLong();
+        String valido = pedido("Show", "{\"idUser\":" + userId + "}");
+
+        lote("[" + valido + "," + pedido("Show", "{\"idUser\":" + (userId + 999) + "}") + "]")
+                .andExpect(status().isBadRequest());
+        lote("[" + valido + "," + pedido("Show", null) + "]").andExpect(status().isBadRequest());
+        lote("[" + valido + "," + pedido("Show", "{}") + "]").andExpect(status().isBadRequest());
+        lote("[]").andExpect(status().isBadRequest());
+        assertThat(json(mvc.perform(get("/orders")).andExpect(status().isOk()).andReturn()).get("items")).isEmpty();
+
+        JsonNode criado = json(lote("[" + valido + "," + pedido("Teatro", "{\"idUser\":" + userId + "}") + "]")
+                .andExpect(status().isCreated())
+                .andReturn());
+        assertThat(criado.get("created").asInt()).isEqualTo(2);
+        JsonNode pagina = json(mvc.perform(get("/orders")).andExpect(status().isOk()).andReturn());
+        assertThat(pagina.get("items")).extracting(order -> order.get("idOrder").asLong())
+                .containsExactly(criado.get("ids").get(0).asLong(), criado.get("ids").get(1).asLong());
+        assertThat(pagina.get("items")).extracting(order -> order.get("item").asText()).containsExactly("Show", "Teatro");
+    }
+
+    private ResultActions lote(String corpo) throws Exception {
+        return mvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content(corpo));
+    }
+
+    private static String pedido(String item, String user) {
+        return "{\"item\":\"" + item + "\",\"quantity\":1,\"value\":20.0" + (user != null ? ",\"user\":" + user : "") + "}";
+    }
+
+    private JsonNode json(MvcResult resultado) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,75 @@
+package com.tickets.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "tickets.test.db=stream")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class OrderStreamTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void pedidoCriadoChegaAoAssinante() throws Exception {
+        MvcResult assinatura = mvc.perform(get("/orders/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult usuario = mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Lia\",\"email\":\"lia@stream.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long userId = objectMapper.readTree(usuario.getResponse().getContentAsString()).get("idUser").asLong();
+        MvcResult pedido = mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Show\",\"quantity\":2,\"value\":10.0,\"user\":{\"idUser\":" + userId + "}}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long idOrder = objectMapper.readTree(pedido.getResponse().getContentAsString()).get("idOrder").asLong();
+
+        String feed = esperarConteudo(assinatura.getResponse(), "\"idOrder\":" + idOrder);
+        assertThat(feed).contains("event:CREATED", "\"item\":\"Show\"", "\"userId\":" + userId);
+    }
+
+    @Test
+    void lastEventIdDeOutraExecucaoRecebeReset() throws Exception {
+        MvcResult assinatura = mvc.perform(get("/orders/stream").header("Last-Event-ID", "epoca-antiga-5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(esperarConteudo(assinatura.getResponse(), "event:RESET")).contains("id:");
+    }
+
+    // Espera o evento com o trecho chegar inteiro (a linha em branco que fecha o evento SSE): o envio
+    // roda em outra thread e pode estar no meio da escrita.
+    private static String esperarConteudo(MockHttpServletResponse response, String trecho) throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String conteudo = response.getContentAsString();
+        while (!conteudo.contains(trecho) || !conteudo.substring(conteudo.indexOf(trecho)).contains("\n\n")) {
+            assertThat(System.nanoTime()).as("'%s' não chegou no feed: %s", trecho, conteudo).isLessThan(limite);
+            Thread.sleep(10);
+            conteudo = response.getContentAsString();
+        }
+        return conteudo;
+    }
+}
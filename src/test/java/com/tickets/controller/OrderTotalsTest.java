@@ -0,0 +1,135 @@
+package com.tickets.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Totais conferidos contra pedidos conhecidos. Ana: Show 2 x 150 e Teatro 1 x 50. Bruno: Show 5 x 10,
+// Show 1 x 100 e Cinema 4 x 30. Caio não tem pedidos e não aparece.
+@SpringBootTest(properties = "tickets.test.db=totais")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderTotalsTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long ana;
+    private long bruno;
+
+    @BeforeAll
+    void popular() throws Exception {
+        ana = criarUsuario("Ana", "ana@totais.com");
+        bruno = criarUsuario("Bruno", "bruno@totais.com");
+        criarUsuario("Caio", "caio@totais.com");
+        criarPedido(ana, "Show", 2, 150.0);
+        criarPedido(ana, "Teatro", 1, 50.0);
+        criarPedido(bruno, "Show", 5, 10.0);
+        criarPedido(bruno, "Show", 1, 100.0);
+        criarPedido(bruno, "Cinema", 4, 30.0);
+    }
+
+    @Test
+    void totaisPorUsuario() throws Exception {
+        JsonNode porReceita = totais("/orders/totais-por-usuario", "REVENUE", 0, 20);
+        assertThat(linhas(porReceita, "userId", "userName")).containsExactly(
+                List.of(ana, "Ana", 2L, 3L, 350.0),
+                List.of(bruno, "Bruno", 3L, 10L, 270.0));
+
+        assertThat(linhas(totais("/orders/totais-por-usuario", "QUANTITY", 0, 20), "userId", "userName"))
+                .extracting(linha -> linha.get(0)).containsExactly(bruno, ana);
+        assertThat(linhas(totais("/orders/totais-por-usuario", "ORDERS", 1, 1), "userId", "userName"))
+                .containsExactly(List.of(ana, "Ana", 2L, 3L, 350.0));
+        assertThat(totais("/orders/totais-por-usuario", "REVENUE", 1, 20)).isEmpty();
+    }
+
+    @Test
+    void totaisPorItem() throws Exception {
+        assertThat(linhas(totais("/orders/totais-por-item", "REVENUE", 0, 20), "item", null)).containsExactly(
+                List.of("Show", 3L, 8L, 450.0),
+                List.of("Cinema", 1L, 4L, 120.0),
+                List.of("Teatro", 1L, 1L, 50.0));
+
+        // Empate em ORDERS: desempata pelo item, então a página seguinte é estável.
+        assertThat(linhas(totais("/orders/totais-por-item", "ORDERS", 0, 2), "item", null))
+                .extracting(linha -> linha.get(0)).containsExactly("Show", "Cinema");
+        assertThat(linhas(totais("/orders/totais-por-item", "ORDERS", 1, 2), "item", null))
+                .containsExactly(List.of("Teatro", 1L, 1L, 50.0));
+        assertThat(linhas(totais("/orders/totais-por-item", "QUANTITY", 0, 1), "item", null))
+                .containsExactly(List.of("Show", 3L, 8L, 450.0));
+    }
+
+    // Cada shard devolveria (page + 1) * size linhas; acima de 10.000 a página é recusada.
+    @Test
+    void paginaProfundaDemaisERecusada() throws Exception {
+        assertThat(totais("/orders/totais-por-item", "REVENUE", 99, 100)).isEmpty();
+        for (String url : List.of("/orders/totais-por-usuario", "/orders/totais-por-item")) {
+            mvc.perform(get(url).param("page", "100").param("size", "100")).andExpect(status().isBadRequest());
+            mvc.perform(get(url).param("page", String.valueOf(Integer.MAX_VALUE)).param("size", "100"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private JsonNode totais(String url, String sort, int page, int size) throws Exception {
+        return json(mvc.perform(get(url).param("sort", sort).param("page", String.valueOf(page))
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+
+    // Chave (e nome, quando há), pedidos, quantidade e receita de cada linha.
+    private static List<List<Object>> linhas(JsonNode totais, String chave, String nome) {
+        List<List<Object>> linhas = new ArrayList<>();
+        for (JsonNode t : totais) {
+            List<Object> linha = new ArrayList<>();
+            linha.add(t.get(chave).isNumber() ? (Object) t.get(chave).asLong() : t.get(chave).asText());
+            if (nome != null) {
+                linha.add(t.get(nome).asText());
+            }
+            linha.add(t.get("orders").asLong());
+            linha.add(t.get("totalQuantity").asLong());
+            linha.add(t.get("revenue").asDouble());
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    private long criarUsuario(String name, String email) throws Exception {
+        return json(mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn()).get("idUser").asLong();
+    }
+
+    private void criarPedido(long userId, String item, int quantity, double value) throws Exception {
+        mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"" + item + "\",\"quantity\":" + quantity + ",\"value\":" + value
+                                + ",\"user\":{\"idUser\":" + userId + "}}"))
+                .andExpect(status().isCreated());
+    }
+
+    private JsonNode json(MvcResult resultado) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,79 @@
+package com.tickets.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tickets.search.SearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "tickets.test.db=busca")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class UserSearchTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    // Os primeiros candidatos de "bia" são todos entradas antigas: a busca tem que ir além deles.
+    @Test
+    void entradasAntigasNaoOcupamAsVagasDaPagina() throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!searchIndex.pronto()) {
+            assertThat(System.nanoTime()).as("índice não ficou pronto em 10s").isLessThan(limite);
+            Thread.sleep(10);
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            ids.add(criar("Bia " + i, "pessoa" + i + "@busca.com"));
+        }
+        for (int i = 0; i < 5; i++) {
+            mvc.perform(put("/users/" + ids.get(i)).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Zeca " + i + "\",\"email\":\"pessoa" + (i + 1) + "@busca.com\",\"version\":0}"))
+                    .andExpect(status().isNoContent());
+        }
+        mvc.perform(delete("/users/" + ids.get(5)).param("version", "0")).andExpect(status().isNoContent());
+
+        JsonNode pagina = json(mvc.perform(get("/users/search").param("prefix", "bia").param("limit", "2"))
+                .andExpect(status().isOk()).andReturn());
+        assertThat(pagina).extracting(user -> user.get("idUser").asLong()).containsExactly(ids.get(6));
+
+        JsonNode zecas = json(mvc.perform(get("/users/search").param("prefix", "zeca").param("limit", "2"))
+                .andExpect(status().isOk()).andReturn());
+        assertThat(zecas).extracting(user -> user.get("name").asText()).containsExactly("Zeca 0", "Zeca 1");
+    }
+
+    private long criar(String name, String email) throws Exception {
+        MvcResult criado = mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return json(criado).get("idUser").asLong();
+    }
+
+    private JsonNode json(MvcResult resultado) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,92 @@
+package com.tickets.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "tickets.test.db=versao")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class VersionedWriteTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void pedidoExigeVersaoERecusaVersaoVelha() throws Exception {
+        long userId = id(mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Caio\",\"email\":\"caio@versao.com\"}")).andReturn(), "idUser");
+        long orderId = id(mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"item\":\"Show\",\"quantity\":1,\"value\":10.0,\"user\":{\"idUser\":" + userId + "}}")).andReturn(), "idOrder");
+        String url = "/orders/" + orderId;
+
+        mvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(pedido(2, "")))
+                .andExpect(status().isPreconditionRequired());
+        mvc.perform(delete(url)).andExpect(status().isPreconditionRequired());
+        mvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MATCH, "W/\"abc\"")
+                        .content(pedido(2, ""))).andExpect(status().isBadRequest());
+        mvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .content(pedido(2, ",\"version\":0"))).andExpect(status().isBadRequest());
+
+        mvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content(pedido(2, ""))).andExpect(status().isNoContent());
+        mvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(pedido(3, ",\"version\":0")))
+                .andExpect(status().isConflict());
+        mvc.perform(delete(url).header(HttpHeaders.IF_MATCH, "\"0\"")).andExpect(status().isConflict());
+        mvc.perform(get("/orders/detalhe/" + orderId))
+                .andExpect(jsonPath("$.quantity").value(2))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mvc.perform(delete(url).param("version", "1")).andExpect(status().isNoContent());
+        mvc.perform(delete(url).param("version", "1")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void usuarioExigeVersaoERecusaVersaoVelha() throws Exception {
+        long userId = id(mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Lara\",\"email\":\"lara@versao.com\"}")).andReturn(), "idUser");
+        String url = "/users/" + userId;
+
+        mvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(usuario("Lara Dias", "")))
+                .andExpect(status().isPreconditionRequired());
+        mvc.perform(delete(url)).andExpect(status().isPreconditionRequired());
+
+        mvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(usuario("Lara Dias", ",\"version\":0")))
+                .andExpect(status().isNoContent());
+        mvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MATCH, "0")
+                        .content(usuario("Lara Souza", ""))).andExpect(status().isConflict());
+        mvc.perform(delete(url).param("version", "0")).andExpect(status().isConflict());
+        mvc.perform(get("/users/email/lara@versao.com")).andExpect(jsonPath("$.name").value("Lara Dias"));
+
+        mvc.perform(delete(url).header(HttpHeaders.IF_MATCH, "\"1\"")).andExpect(status().isNoContent());
+    }
+
+    private static String pedido(int quantidade, String versao) {
+        return "{\"item\":\"Show\",\"quantity\":" + quantidade + ",\"value\":10.0" + versao + "}";
+    }
+
+    private static String usuario(String name, String versao) {
+        return "{\"name\":\"" + name + "\",\"email\":\"lara@versao.com\"" + versao + "}";
+    }
+
+    private long id(MvcResult resultado, String campo) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString()).get(campo).asLong();
+    }
+}
@@ -0,0 +1,82 @@
+package com.tickets.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tickets.dto.CursorPage;
+import com.tickets.dto.ItemOrderTotals;
+import com.tickets.dto.OrderDetail;
+import com.tickets.dto.OrderSummary;
+import com.tickets.dto.UserDetail;
+import com.tickets.dto.UserOrderTotals;
+import com.tickets.dto.UserSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Os serializers escritos à mão têm que gerar exatamente o JSON do Jackson padrão.
+class ResponseSerializersTest {
+
+    private final ObjectMapper padrao = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper comSerializers = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new ResponseSerializers())
+            .build();
+
+    @Test
+    void projecoesSaemIguaisAoJacksonPadrao() throws Exception {
+        OrderSummary order = new OrderSummary(7L, "Show \"especial\" ção", 2, 150.5);
+        OrderSummary orderNulo = new OrderSummary(8L, null, null, null);
+
+        assertMesmoJson(order);
+        assertMesmoJson(orderNulo);
+        assertMesmoJson(new OrderDetail(7L, "Show", 2, 150.5, 3L, "Maria", 4L));
+        assertMesmoJson(new OrderDetail(7L, "Show", null, null, 3L, null, null));
+        assertMesmoJson(new UserSummary(3L, "Maria", "maria@tickets.com", 0L));
+        assertMesmoJson(new UserDetail(3L, "Maria", List.of(order, orderNulo)));
+        assertMesmoJson(new UserDetail(3L, null, Arrays.asList(order, null)));
+        assertMesmoJson(new UserDetail(3L, "Maria", null));
+        assertMesmoJson(new UserOrderTotals(3L, "Maria", 2L, 5L, 300.0));
+        assertMesmoJson(new ItemOrderTotals("Show", 2L, 5L, 300.0));
+    }
+
+    @Test
+    void listasEPaginasUsamOsSerializersDosElementos() throws Exception {
+        List<OrderSummary> orders = List.of(new OrderSummary(1L, "A", 1, 1.0), new OrderSummary(2L, "B", 2, 2.0));
+
+        assertMesmoJson(orders);
+        assertMesmoJson(new CursorPage<>(orders, CursorPage.encode(2L)));
+        assertMesmoJson(new CursorPage<>(List.of(new UserSummary(1L, "Ana", "ana@tickets.com", 1L)), null));
+    }
+
+    @Test
+    void decimaisFormatadosSemAlocarSaemIguaisAoDoubleToString() {
+        char[] buffer = new char[24];
+        double[] especiais = {0.0, -0.0, 0.01, 0.29, 0.1 + 0.2, 1e-4, 9_999_999.99, 1e7, 123.456, -150.5,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE};
+        for (double valor : especiais) {
+            assertFormatado(valor, buffer);
+        }
+        for (long centavos = -100_000; centavos <= 2_000_000; centavos++) {
+            assertFormatado(centavos / 100.0, buffer);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            assertFormatado(random.nextDouble() * 10_000_000, buffer);
+            assertFormatado(Math.round(random.nextDouble() * 1e9) / 100.0, buffer);
+        }
+    }
+
+    private static void assertFormatado(double valor, char[] buffer) {
+        int tamanho = ResponseSerializers.formatarDecimal(valor, buffer);
+        if (tamanho >= 0) {
+            assertThat(new String(buffer, 0, tamanho)).as("%s", valor).isEqualTo(Double.toString(valor));
+        }
+    }
+
+    private void assertMesmoJson(Object valor) throws Exception {
+        assertThat(comSerializers.writeValueAsString(valor)).isEqualTo(padrao.writeValueAsString(valor));
+    }
+}
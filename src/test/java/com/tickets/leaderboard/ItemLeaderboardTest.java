@@ -0,0 +1,97 @@
+package com.tickets.leaderboard;
+
+import com.tickets.dto.ItemOrderTotals;
+import com.tickets.dto.OrderSale;
+import com.tickets.dto.TotalsSort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemLeaderboardTest {
+
+    private static final long MINUTO = 60_000;
+
+    private final ItemLeaderboard leaderboard =
+            new ItemLeaderboard(new SimpleMeterRegistry(), Duration.ofHours(1), Duration.ofMinutes(1));
+
+    @Test
+    void ordenaPorCriterio() {
+        leaderboard.aplicar(List.of(
+                criado(venda(1, "show", 2, 100.0, 0)),
+                criado(venda(2, "teatro", 5, 10.0, 0)),
+                criado(venda(3, "show", 1, 100.0, 0))), 0);
+
+        assertThat(leaderboard.top(TotalsSort.QUANTITY, 10, 0)).containsExactly(
+                new ItemOrderTotals("teatro", 1L, 5L, 50.0),
+                new ItemOrderTotals("show", 2L, 3L, 300.0));
+        assertThat(leaderboard.top(TotalsSort.REVENUE, 1, 0)).extracting(ItemOrderTotals::item).containsExactly("show");
+    }
+
+    @Test
+    void updateEDeleteCorrigemOTotal() {
+        leaderboard.aplicar(List.of(criado(venda(1, "show", 2, 100.0, 0)), criado(venda(2, "show", 1, 100.0, 0))), 0);
+
+        leaderboard.aplicar(List.of(atualizado(1, "teatro", 4, 10.0, 1)), MINUTO);
+        leaderboard.aplicar(List.of(ItemLeaderboard.Alteracao.remocao(2L)), MINUTO);
+
+        assertThat(leaderboard.top(TotalsSort.QUANTITY, 10, MINUTO))
+                .containsExactly(new ItemOrderTotals("teatro", 1L, 4L, 40.0));
+    }
+
+    @Test
+    void vendaSaiDaJanelaComOBucketDoCreatedAt() {
+        leaderboard.aplicar(List.of(criado(venda(1, "show", 2, 100.0, 0))), 0);
+        leaderboard.aplicar(List.of(criado(venda(2, "teatro", 1, 10.0, 30 * MINUTO))), 30 * MINUTO);
+
+        // Update aplicado bem depois continua contando no minuto em que o pedido foi criado.
+        leaderboard.aplicar(List.of(atualizado(1, "show", 3, 100.0, 1)), 50 * MINUTO);
+        assertThat(leaderboard.top(TotalsSort.ORDERS, 10, 59 * MINUTO)).hasSize(2);
+        assertThat(leaderboard.top(TotalsSort.ORDERS, 10, 60 * MINUTO))
+                .containsExactly(new ItemOrderTotals("teatro", 1L, 1L, 10.0));
+
+        // Update e delete de pedido que já saiu da janela não mexem no ranking.
+        leaderboard.aplicar(List.of(atualizado(1, "show", 9, 100.0, 2)), 60 * MINUTO);
+        leaderboard.aplicar(List.of(ItemLeaderboard.Alteracao.remocao(1L)), 60 * MINUTO);
+        assertThat(leaderboard.top(TotalsSort.ORDERS, 10, 60 * MINUTO))
+                .containsExactly(new ItemOrderTotals("teatro", 1L, 1L, 10.0));
+    }
+
+    // Os ajustes chegam depois do commit de cada escrita, e duas escritas seguidas podem chegar invertidas.
+    @Test
+    void versaoSuperadaEPedidoDeletadoSaoIgnorados() {
+        leaderboard.aplicar(List.of(criado(venda(1, "show", 2, 100.0, 0)), criado(venda(2, "show", 1, 100.0, 0))), 0);
+
+        leaderboard.aplicar(List.of(atualizado(1, "show", 5, 100.0, 2)), MINUTO);
+        leaderboard.aplicar(List.of(atualizado(1, "teatro", 3, 10.0, 1)), MINUTO);
+        leaderboard.aplicar(List.of(ItemLeaderboard.Alteracao.remocao(2L)), MINUTO);
+        leaderboard.aplicar(List.of(atualizado(2, "show", 7, 100.0, 1)), MINUTO);
+
+        assertThat(leaderboard.top(TotalsSort.QUANTITY, 10, MINUTO))
+                .containsExactly(new ItemOrderTotals("show", 1L, 5L, 500.0));
+    }
+
+    @Test
+    void vendaCriadaAntesDaJanelaNaoEntra() {
+        leaderboard.aplicar(List.of(criado(venda(1, "show", 2, 100.0, 0))), 60 * MINUTO);
+
+        assertThat(leaderboard.top(TotalsSort.ORDERS, 10, 60 * MINUTO)).isEmpty();
+    }
+
+    private static ItemLeaderboard.Alteracao criado(OrderSale venda) {
+        return ItemLeaderboard.Alteracao.gravacao(venda);
+    }
+
+    // Como no OrderService: o update não conhece o created_at.
+    private static ItemLeaderboard.Alteracao atualizado(long id, String item, int quantidade, double valor, long versao) {
+        return ItemLeaderboard.Alteracao.gravacao(new OrderSale(id, item, quantidade, valor, null, versao));
+    }
+
+    private static OrderSale venda(long id, String item, int quantidade, double valor, long criadoEm) {
+        return new OrderSale(id, item, quantidade, valor, Instant.ofEpochMilli(criadoEm), 0L);
+    }
+}
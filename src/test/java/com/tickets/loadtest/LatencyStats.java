@@ -0,0 +1,61 @@
+package com.tickets.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Latências de um endpoint em nanossegundos. Cada worker tem a sua instância; no fim elas são somadas.
+class LatencyStats {
+
+    private long[] amostras = new long[1024];
+    private int tamanho;
+    private long erros;
+
+    void registrar(long nanos) {
+        if (tamanho == amostras.length) {
+            amostras = Arrays.copyOf(amostras, tamanho * 2);
+        }
+        amostras[tamanho++] = nanos;
+    }
+
+    void registrarErro() {
+        erros++;
+    }
+
+    long erros() {
+        return erros;
+    }
+
+    void somar(LatencyStats outro) {
+        for (int i = 0; i < outro.tamanho; i++) {
+            registrar(outro.amostras[i]);
+        }
+        erros += outro.erros;
+    }
+
+    Map<String, Object> resumo(double segundos) {
+        long[] ordenadas = Arrays.copyOf(amostras, tamanho);
+        Arrays.sort(ordenadas);
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("requests", tamanho);
+        resumo.put("errors", erros);
+        resumo.put("throughputPerSec", round(tamanho / segundos));
+        resumo.put("p50Ms", percentilMs(ordenadas, 0.50));
+        resumo.put("p95Ms", percentilMs(ordenadas, 0.95));
+        resumo.put("p99Ms", percentilMs(ordenadas, 0.99));
+        resumo.put("maxMs", tamanho == 0 ? 0.0 : round(ordenadas[tamanho - 1] / 1_000_000.0));
+        return resumo;
+    }
+
+    private static double percentilMs(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0.0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return round(ordenadas[Math.max(0, indice)] / 1_000_000.0);
+    }
+
+    private static double round(double valor) {
+        return Math.round(valor * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,225 @@
+package com.tickets.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tickets.domain.Order;
+import com.tickets.domain.User;
+import com.tickets.service.OrderService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Carga mista contra a aplicação inteira (Tomcat + H2 em modo MySQL). Roda só com -Ploadtest e
+// grava throughput e p50/p95/p99 por endpoint em JSON para comparar builds.
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final int LOTE_SEED = 5000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.users}")
+    private int users;
+
+    @Value("${loadtest.orders}")
+    private int orders;
+
+    @Value("${loadtest.concurrency}")
+    private int concurrency;
+
+    @Value("${loadtest.warmup}")
+    private Duration warmup;
+
+    @Value("${loadtest.duration}")
+    private Duration duration;
+
+    @Value("${loadtest.report}")
+    private String report;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private long[] orderIds;
+
+    private record Endpoint(String nome, int peso, Supplier<HttpRequest> request) {
+    }
+
+    @Test
+    void cargaMista() throws Exception {
+        semear();
+        List<Endpoint> endpoints = List.of(
+                new Endpoint("GET /orders", 20, () -> get("/orders?limit=50")),
+                new Endpoint("GET /orders/detalhe/{id}", 40, () -> get("/orders/detalhe/" + orderAleatorio())),
+                new Endpoint("GET /users/email/{email}", 30, () -> get("/users/email/" + emailAleatorio())),
+                new Endpoint("POST /orders", 10, this::novoOrder));
+
+        executar(endpoints, warmup);
+        Map<String, LatencyStats> resultado = executar(endpoints, duration);
+
+        Map<String, Object> relatorio = new LinkedHashMap<>();
+        relatorio.put("timestamp", Instant.now().toString());
+        relatorio.put("config", Map.of("users", users, "orders", orders, "concurrency", concurrency,
+                "durationSec", duration.toSeconds()));
+        Map<String, Object> porEndpoint = new LinkedHashMap<>();
+        resultado.forEach((nome, stats) -> porEndpoint.put(nome, stats.resumo(duration.toMillis() / 1000.0)));
+        relatorio.put("endpoints", porEndpoint);
+
+        File arquivo = new File(report);
+        arquivo.getAbsoluteFile().getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(arquivo, relatorio);
+        logger.info("Relatório de carga gravado em {}: {}", arquivo.getAbsolutePath(), objectMapper.writeValueAsString(porEndpoint));
+
+        resultado.forEach((nome, stats) -> assertThat(stats.erros()).as("erros em %s", nome).isZero());
+    }
+
+    private void semear() {
+        List<Object[]> linhas = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            linhas.add(new Object[]{"Cliente " + i, email(i)});
+        }
+        jdbcTemplate.batchUpdate("insert into users (name, email, version) values (?, ?, 0)", linhas);
+        List<Long> userIds = jdbcTemplate.queryForList("select id_user from users", Long.class);
+
+        // Pedidos entram pelo caminho em lote da aplicação, que usa o mesmo gerador de ids do POST.
+        List<Order> lote = new ArrayList<>(LOTE_SEED);
+        for (int i = 0; i < orders; i++) {
+            lote.add(order("Ingresso setor " + (i % 40), userIds.get(i % userIds.size())));
+            if (lote.size() == LOTE_SEED || i == orders - 1) {
+                orderService.salvarOrdersEmLote(lote);
+                lote = new ArrayList<>(LOTE_SEED);
+            }
+        }
+        orderIds = jdbcTemplate.queryForList("select id_order from orders", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+    }
+
+    private Map<String, LatencyStats> executar(List<Endpoint> endpoints, Duration janela) throws Exception {
+        int pesoTotal = endpoints.stream().mapToInt(Endpoint::peso).sum();
+        long fim = System.nanoTime() + janela.toNanos();
+        List<Future<Map<String, LatencyStats>>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.add(executor.submit(() -> {
+                    Map<String, LatencyStats> locais = new LinkedHashMap<>();
+                    endpoints.forEach(e -> locais.put(e.nome(), new LatencyStats()));
+                    while (System.nanoTime() < fim) {
+                        Endpoint endpoint = sortear(endpoints, pesoTotal);
+                        LatencyStats stats = locais.get(endpoint.nome());
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(endpoint.request().get(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                stats.registrarErro();
+                            } else {
+                                stats.registrar(System.nanoTime() - inicio);
+                            }
+                        } catch (Exception e) {
+                            stats.registrarErro();
+                        }
+                    }
+                    return locais;
+                }));
+            }
+        }
+        Map<String, LatencyStats> total = new LinkedHashMap<>();
+        endpoints.forEach(e -> total.put(e.nome(), new LatencyStats()));
+        for (Future<Map<String, LatencyStats>> worker : workers) {
+            worker.get().forEach((nome, stats) -> total.get(nome).somar(stats));
+        }
+        return total;
+    }
+
+    private static Endpoint sortear(List<Endpoint> endpoints, int pesoTotal) {
+        int sorteio = ThreadLocalRandom.current().nextInt(pesoTotal);
+        for (Endpoint endpoint : endpoints) {
+            sorteio -= endpoint.peso();
+            if (sorteio < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    }
+
+    private HttpRequest novoOrder() {
+        long userId = jdbcUserIdAleatorio();
+        String body = "{\"item\":\"Ingresso carga\",\"quantity\":2,\"value\":120.0,\"user\":{\"idUser\":" + userId + "}}";
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private long orderAleatorio() {
+        return orderIds[ThreadLocalRandom.current().nextInt(orderIds.length)];
+    }
+
+    private String emailAleatorio() {
+        return email(ThreadLocalRandom.current().nextInt(users));
+    }
+
+    // Os usuários são inseridos em ordem num banco vazio, então os ids vão de 1 a users.
+    private long jdbcUserIdAleatorio() {
+        return 1 + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    private static String email(int i) {
+        return "cliente" + i + "@loadtest.com";
+    }
+
+    private static Order order(String item, Long userId) {
+        User user = new User();
+        user.setIdUser(userId);
+        Order order = new Order();
+        order.setItem(item);
+        order.setQuantity(1 + (int) (userId % 4));
+        order.setValue(80.0 + userId % 200);
+        order.setUser(user);
+        return order;
+    }
+}
@@ -0,0 +1,49 @@
+package com.tickets.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    @Test
+    void devolveIdsComTodosOsTokensDoMaiorParaOMenor() {
+        InvertedIndex indice = new InvertedIndex();
+        indice.adicionar(1, "Show de Rock");
+        indice.adicionar(2, "Rock in Rio");
+        indice.adicionar(3, "show rock acústico");
+        indice.adicionar(4, "Teatro");
+
+        assertThat(indice.buscar(List.of("show", "rock"), Long.MAX_VALUE, 10)).containsExactly(3, 1);
+        assertThat(indice.buscar(List.of("rock"), Long.MAX_VALUE, 10)).containsExactly(3, 2, 1);
+        assertThat(indice.buscar(List.of("rock", "samba"), Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(indice.tokens()).isEqualTo(7);
+    }
+
+    @Test
+    void continuaAPartirDoUltimoIdRecebido() {
+        InvertedIndex indice = new InvertedIndex();
+        for (long id = 1; id <= 5; id++) {
+            indice.adicionar(id, "show");
+        }
+
+        long[] primeira = indice.buscar(List.of("show"), Long.MAX_VALUE, 2);
+        assertThat(primeira).containsExactly(5, 4);
+        assertThat(indice.buscar(List.of("show"), primeira[1], 2)).containsExactly(3, 2);
+        assertThat(indice.buscar(List.of("show"), 2, 2)).containsExactly(1);
+        assertThat(indice.buscar(List.of("show"), 1, 2)).isEmpty();
+    }
+
+    @Test
+    void reindexarMantemAEntradaAntiga() {
+        InvertedIndex indice = new InvertedIndex();
+        indice.adicionar(1, "show");
+        indice.adicionar(1, "teatro");
+
+        // Quem busca confere no banco; o índice só é limpo na reconstrução.
+        assertThat(indice.buscar(List.of("show"), Long.MAX_VALUE, 10)).containsExactly(1);
+        assertThat(indice.buscar(List.of("teatro"), Long.MAX_VALUE, 10)).containsExactly(1);
+    }
+}
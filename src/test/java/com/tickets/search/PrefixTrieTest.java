@@ -0,0 +1,62 @@
+package com.tickets.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixTrieTest {
+
+    @Test
+    void encontraPorPrefixoDepoisDeDividirArestas() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.adicionar(1, "ana@tickets.com");
+        trie.adicionar(2, "ana.souza@tickets.com");
+        trie.adicionar(3, "andre@tickets.com");
+        trie.adicionar(4, "bruno@tickets.com");
+
+        assertThat(trie.buscar("an", 10)).containsExactly(2, 1, 3);
+        assertThat(trie.buscar("ana", 10)).containsExactly(2, 1);
+        assertThat(trie.buscar("ana@", 10)).containsExactly(1);
+        assertThat(trie.buscar("anx", 10)).isEmpty();
+        assertThat(trie.buscar("ana@tickets.com.br", 10)).isEmpty();
+        assertThat(trie.buscar("", 10)).hasSize(4);
+    }
+
+    @Test
+    void respeitaLimiteESemIdsRepetidos() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.adicionar(1, "maria silva");
+        trie.adicionar(1, "maria");
+        trie.adicionar(2, "mariana");
+        trie.adicionar(3, "marina");
+
+        assertThat(trie.buscar("mari", 10)).containsExactly(1, 2, 3);
+        assertThat(trie.buscar("mari", 2)).containsExactly(1, 2);
+        assertThat(trie.chaves()).isEqualTo(4);
+    }
+
+    @Test
+    void chaveQueEPrefixoDeOutraGuardaIdNoNoIntermediario() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.adicionar(1, "joaquim");
+        trie.adicionar(2, "joao");
+        trie.adicionar(3, "jo");
+
+        assertThat(trie.buscar("jo", 10)).containsExactly(3, 2, 1);
+        assertThat(trie.buscar("joa", 10)).containsExactly(2, 1);
+    }
+
+    @Test
+    void pularContinuaDeOndeOLoteAnteriorParou() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.adicionar(1, "bia");
+        trie.adicionar(2, "bia");
+        trie.adicionar(1, "bianca");
+        trie.adicionar(3, "biatriz");
+        trie.adicionar(4, "bruno");
+
+        assertThat(trie.buscar("bia", 0, 2)).containsExactly(1, 2);
+        assertThat(trie.buscar("bia", 2, 2)).containsExactly(3);
+        assertThat(trie.buscar("bia", 3, 2)).isEmpty();
+    }
+}
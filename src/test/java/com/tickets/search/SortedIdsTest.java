@@ -0,0 +1,36 @@
+package com.tickets.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedIdsTest {
+
+    @Test
+    void mantemOrdemSemRepetidosECresceOArray() {
+        SortedIds ids = new SortedIds();
+        assertThat(ids.adicionar(5)).isZero();
+        assertThat(ids.adicionar(9)).isEqualTo(Long.BYTES);
+        ids.adicionar(1);
+        ids.adicionar(7);
+        assertThat(ids.adicionar(7)).isZero();
+
+        assertThat(ids.tamanho()).isEqualTo(4);
+        assertThat(new long[]{ids.get(0), ids.get(1), ids.get(2), ids.get(3)}).containsExactly(1, 5, 7, 9);
+        assertThat(ids.contem(7)).isTrue();
+        assertThat(ids.contem(6)).isFalse();
+    }
+
+    @Test
+    void inicioDeApontaParaOPrimeiroMaiorOuIgual() {
+        SortedIds ids = new SortedIds();
+        ids.adicionar(10);
+        ids.adicionar(20);
+        ids.adicionar(30);
+
+        assertThat(ids.inicioDe(20)).isEqualTo(1);
+        assertThat(ids.inicioDe(21)).isEqualTo(2);
+        assertThat(ids.inicioDe(1)).isZero();
+        assertThat(ids.inicioDe(Long.MAX_VALUE)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,90 @@
+package com.tickets.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTest {
+
+    @Test
+    void recusaQuandoCheiaEMantemOrdem() {
+        RingBuffer<Integer> fila = new RingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(fila.oferecer(i)).isTrue();
+        }
+        assertThat(fila.oferecer(4)).isFalse();
+        assertThat(fila.tamanho()).isEqualTo(4);
+
+        assertThat(fila.retirar()).isEqualTo(0);
+        assertThat(fila.oferecer(4)).isTrue();
+        List<Integer> restantes = new ArrayList<>();
+        Integer item;
+        while ((item = fila.retirar()) != null) {
+            restantes.add(item);
+        }
+        assertThat(restantes).containsExactly(1, 2, 3, 4);
+        assertThat(fila.tamanho()).isZero();
+    }
+
+    @Test
+    void capacidadeArredondaParaPotenciaDeDois() {
+        assertThat(new RingBuffer<>(1000).capacidade()).isEqualTo(1024);
+        assertThat(new RingBuffer<>(1024).capacidade()).isEqualTo(1024);
+    }
+
+    @Test
+    void produtoresEConsumidoresConcorrentesNaoPerdemNemDuplicam() throws Exception {
+        RingBuffer<Integer> fila = new RingBuffer<>(64);
+        int produtores = 4;
+        int porProdutor = 50_000;
+        ConcurrentHashMap<Integer, Boolean> recebidos = new ConcurrentHashMap<>();
+        AtomicInteger duplicados = new AtomicInteger();
+        CountDownLatch produzido = new CountDownLatch(produtores);
+        ExecutorService executor = Executors.newFixedThreadPool(produtores + 2);
+        try {
+            for (int p = 0; p < produtores; p++) {
+                int base = p * porProdutor;
+                executor.submit(() -> {
+                    for (int i = 0; i < porProdutor; i++) {
+                        while (!fila.oferecer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    produzido.countDown();
+                });
+            }
+            List<Future<?>> consumidores = new ArrayList<>();
+            for (int c = 0; c < 2; c++) {
+                consumidores.add(executor.submit(() -> {
+                    while (produzido.getCount() > 0 || fila.tamanho() > 0) {
+                        Integer item = fila.retirar();
+                        if (item == null) {
+                            Thread.onSpinWait();
+                        } else if (recebidos.put(item, Boolean.TRUE) != null) {
+                            duplicados.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> consumidor : consumidores) {
+                consumidor.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicados).hasValue(0);
+        assertThat(recebidos).hasSize(produtores * porProdutor);
+    }
+}
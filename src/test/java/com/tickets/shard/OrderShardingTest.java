@@ -0,0 +1,253 @@
+package com.tickets.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Três bancos H2 no lugar das shards: o principal (shard 0, com users) e dois só com orders.
+@SpringBootTest(properties = {
+        "tickets.test.db=sharding0",
+        "tickets.sql-budget.header=true",
+        "tickets.orders.sharding.shards[0].url=" + OrderShardingTest.URL + "1" + OrderShardingTest.OPCOES,
+        "tickets.orders.sharding.shards[1].url=" + OrderShardingTest.URL + "2" + OrderShardingTest.OPCOES
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderShardingTest {
+
+    static final String URL = "jdbc:h2:mem:sharding";
+    static final String OPCOES = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+
+    private static final int SHARDS = 3;
+    private static final int USUARIOS = 12;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<JdbcTemplate> bancos = new ArrayList<>();
+    private final Map<Long, Long> donoDoPedido = new HashMap<>();
+
+    @BeforeAll
+    void popular() throws Exception {
+        for (int i = 0; i < SHARDS; i++) {
+            bancos.add(new JdbcTemplate(new DriverManagerDataSource(URL + i + OPCOES, "sa", "")));
+        }
+        Set<Integer> shardsUsadas = new HashSet<>();
+        StringBuilder lote = new StringBuilder("[");
+        for (long u = 1; u <= USUARIOS; u++) {
+            mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Usuario " + u + "\",\"email\":\"u" + u + "@tickets.com\"}"))
+                    .andExpect(status().isCreated());
+            shardsUsadas.add(OrderShards.shardDoUsuario(u, SHARDS));
+            for (int p = 0; p < 3; p++) {
+                if (lote.length() > 1) {
+                    lote.append(',');
+                }
+                lote.append(order(p == 0 ? "Show comum" : "Show " + u, (int) u, 10.0, u));
+            }
+        }
+        assertThat(shardsUsadas).hasSize(SHARDS);
+        JsonNode criados = json(mvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(lote.append(']').toString()))
+                .andExpect(status().isCreated()).andReturn());
+        for (int i = 0; i < criados.get("ids").size(); i++) {
+            donoDoPedido.put(criados.get("ids").get(i).asLong(), 1L + i / 3);
+        }
+        JsonNode avulso = json(mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content(order("Show avulso", 1, 99.0, 5L)))
+                .andExpect(status().isCreated()).andReturn());
+        donoDoPedido.put(avulso.get("idOrder").asLong(), 5L);
+    }
+
+    @Test
+    void cadaPedidoFicaNaShardDoUsuarioComIdQueApontaParaEla() {
+        for (Map.Entry<Long, Long> pedido : donoDoPedido.entrySet()) {
+            int shard = OrderShards.shardDoUsuario(pedido.getValue(), SHARDS);
+            assertThat(pedido.getKey() % SHARDS).isEqualTo(shard);
+            assertThat(bancos.get(shard).queryForObject("select user_id from orders where id_order = ?",
+                    Long.class, pedido.getKey())).isEqualTo(pedido.getValue());
+        }
+        long total = 0;
+        for (JdbcTemplate banco : bancos) {
+            total += banco.queryForObject("select count(*) from orders", Long.class);
+        }
+        assertThat(total).isEqualTo(donoDoPedido.size());
+    }
+
+    @Test
+    void listagemPorCursorJuntaAsShardsEmOrdemDeId() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        do {
+            JsonNode pagina = json(mvc.perform(get("/orders").param("limit", "7").param("cursor", cursor))
+                    .andExpect(status().isOk()).andReturn());
+            pagina.get("items").forEach(item -> ids.add(item.get("idOrder").asLong()));
+            cursor = pagina.get("nextCursor").isNull() ? null : pagina.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(donoDoPedido.keySet());
+    }
+
+    @Test
+    void totaisSomamAsShards() throws Exception {
+        JsonNode itens = json(mvc.perform(get("/orders/totais-por-item").param("sort", "ORDERS").param("size", "1"))
+                .andExpect(status().isOk()).andReturn());
+        assertThat(itens.get(0).get("item").asText()).isEqualTo("Show comum");
+        assertThat(itens.get(0).get("orders").asLong()).isEqualTo(USUARIOS);
+
+        List<Long> porQuantidade = new ArrayList<>();
+        for (int pagina = 0; pagina < 3; pagina++) {
+            json(mvc.perform(get("/orders/totais-por-usuario").param("sort", "QUANTITY")
+                            .param("page", "" + pagina).param("size", "5"))
+                    .andExpect(status().isOk()).andReturn())
+                    .forEach(total -> {
+                        porQuantidade.add(total.get("userId").asLong());
+                        assertThat(total.get("userName").asText()).isEqualTo("Usuario " + total.get("userId").asLong());
+                    });
+        }
+        // Usuário u tem três pedidos de u unidades (e o 5, mais um avulso de 1).
+        assertThat(porQuantidade).containsExactly(12L, 11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+    }
+
+    // O lote passa por três shards, mas chega ao ranking de uma vez, depois do commit de todas.
+    @Test
+    void loteEntraNoRankingComPedidosDeTodasAsShards() throws Exception {
+        JsonNode top = json(mvc.perform(get("/orders/top-itens").param("sort", "ORDERS").param("limit", "1"))
+                .andExpect(status().isOk()).andReturn());
+        assertThat(top.get(0).get("item").asText()).isEqualTo("Show comum");
+        assertThat(top.get(0).get("orders").asLong()).isEqualTo(USUARIOS);
+    }
+
+    // As shards 1 e 2 são consultadas nos threads do scatter, e os statements delas contam no request.
+    @Test
+    void consultasNasOutrasShardsContamNoOrcamentoDoRequest() throws Exception {
+        mvc.perform(get("/orders/totais-por-item").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-SQL-Statements", String.valueOf(SHARDS)));
+    }
+
+    @Test
+    void leiturasEEscritasPontuaisVaoSoParaAShardDoPedido() throws Exception {
+        long userId = primeiroUsuarioDa(1);
+        int shard = OrderShards.shardDoUsuario(userId, SHARDS);
+        long id = json(mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content(order("Show pontual", 1, 1.0, userId)))
+                .andExpect(status().isCreated()).andReturn()).get("idOrder").asLong();
+        assertThat(id % SHARDS).isEqualTo(shard);
+
+        JsonNode detalhe = json(mvc.perform(get("/orders/detalhe/{id}", id)).andExpect(status().isOk()).andReturn());
+        assertThat(detalhe.get("userName").asText()).isEqualTo("Usuario " + userId);
+
+        mvc.perform(put("/orders/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Show remarcado\",\"quantity\":2,\"value\":1.0,\"version\":0}"))
+                .andExpect(status().isNoContent());
+        assertThat(bancos.get(shard).queryForObject("select item from orders where id_order = ?", String.class, id))
+                .isEqualTo("Show remarcado");
+
+        JsonNode usuario = json(mvc.perform(get("/users/detalhe-usuario/{id}", userId)).andExpect(status().isOk()).andReturn());
+        assertThat(usuario.get("orders")).hasSize(pedidosDe(userId) + 1);
+
+        mvc.perform(delete("/orders/{id}", id).param("version", "1")).andExpect(status().isNoContent());
+        mvc.perform(get("/orders/detalhe/{id}", id)).andExpect(status().isNotFound());
+        assertThat(bancos.get(shard).queryForObject("select count(*) from orders where id_order = ?", Long.class, id))
+                .isZero();
+    }
+
+    @Test
+    void loteComFalhaEmUmaShardNaoGravaEmNenhuma() throws Exception {
+        long[] antes = contagens();
+        String lote = "[" + order("Show ok", 1, 1.0, primeiroUsuarioDa(0)) + ","
+                + order("Show ok", 1, 1.0, primeiroUsuarioDa(1)) + ","
+                + "{\"quantity\":1,\"value\":1.0,\"user\":{\"idUser\":" + primeiroUsuarioDa(2) + "}}]";
+
+        mvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content(lote))
+                .andExpect(status().is5xxServerError());
+
+        assertThat(contagens()).containsExactly(antes);
+    }
+
+    @Test
+    void pedidoDeUsuarioInexistenteForaDaShardPrincipalERecusado() throws Exception {
+        long inexistente = USUARIOS + 1;
+        while (OrderShards.shardDoUsuario(inexistente, SHARDS) == 0) {
+            inexistente++;
+        }
+        long[] antes = contagens();
+
+        mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content(order("Show fantasma", 1, 1.0, inexistente)))
+                .andExpect(status().isInternalServerError());
+
+        assertThat(contagens()).containsExactly(antes);
+    }
+
+    @Test
+    void exportPassaPorTodasAsShards() throws Exception {
+        MvcResult inicio = mvc.perform(get("/orders/export")).andReturn();
+        String ndjson = mvc.perform(asyncDispatch(inicio)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(ndjson.lines().count()).isEqualTo(contagens()[0] + contagens()[1] + contagens()[2]);
+    }
+
+    private long[] contagens() {
+        long[] contagens = new long[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            contagens[i] = bancos.get(i).queryForObject("select count(*) from orders", Long.class);
+        }
+        return contagens;
+    }
+
+    private long primeiroUsuarioDa(int shard) {
+        for (long u = 1; u <= USUARIOS; u++) {
+            if (OrderShards.shardDoUsuario(u, SHARDS) == shard) {
+                return u;
+            }
+        }
+        throw new IllegalStateException("Nenhum usuário na shard " + shard);
+    }
+
+    private int pedidosDe(long userId) {
+        return (int) donoDoPedido.values().stream().filter(dono -> dono == userId).count();
+    }
+
+    private JsonNode json(MvcResult resultado) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+
+    private static String order(String item, int quantity, double value, long userId) {
+        return "{\"item\":\"" + item + "\",\"quantity\":" + quantity + ",\"value\":" + value
+                + ",\"user\":{\"idUser\":" + userId + "}}";
+    }
+}
@@ -0,0 +1,50 @@
+package com.tickets.sql;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Matchers do MockMvc para travar o número de statements de um endpoint:
+//   mvc.perform(get("/orders")).andExpect(SqlBudget.dentroDoOrcamento());
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    // Orçamento declarado em tickets.sql-budget para o endpoint que atendeu o request.
+    public static ResultMatcher dentroDoOrcamento() {
+        return resultado -> {
+            SqlRequestStats stats = stats(resultado);
+            assertThat(stats.statements())
+                    .as("statements de %s (mais repetido: %s)", stats.endpoint(), stats.sqlMaisRepetido())
+                    .isLessThanOrEqualTo(stats.orcamento());
+        };
+    }
+
+    public static ResultMatcher noMaximo(int statements) {
+        return resultado -> {
+            SqlRequestStats stats = stats(resultado);
+            assertThat(stats.statements())
+                    .as("statements de %s (mais repetido: %s)", stats.endpoint(), stats.sqlMaisRepetido())
+                    .isLessThanOrEqualTo(statements);
+        };
+    }
+
+    public static ResultMatcher semRepeticao(int vezes) {
+        return resultado -> {
+            SqlRequestStats stats = stats(resultado);
+            assertThat(stats.maiorRepeticao())
+                    .as("SELECT repetido em %s: %s", stats.endpoint(), stats.sqlMaisRepetido())
+                    .isLessThan(vezes);
+        };
+    }
+
+    private static SqlRequestStats stats(MvcResult resultado) {
+        Object stats = resultado.getRequest().getAttribute(SqlRequestStats.ATRIBUTO);
+        assertThat(stats).as("SqlBudgetFilter não mediu o request").isInstanceOf(SqlRequestStats.class);
+        SqlRequestStats sqlStats = (SqlRequestStats) stats;
+        assertThat(sqlStats.endpoint()).as("request sem endpoint mapeado").isNotNull();
+        return sqlStats;
+    }
+}
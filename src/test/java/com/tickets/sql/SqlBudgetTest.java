@@ -0,0 +1,123 @@
+package com.tickets.sql;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Cada endpoint principal contra o orçamento do application.yml: um N+1 que volte a aparecer
+// (ex.: listagem carregando o usuário de cada pedido) quebra o build aqui.
+@SpringBootTest(properties = {
+        "tickets.test.db=sqlbudget",
+        "tickets.sql-budget.header=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlBudgetTest {
+
+    private static final int USUARIOS = 5;
+    private static final int PEDIDOS_POR_USUARIO = 20;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @BeforeAll
+    void popular() throws Exception {
+        StringBuilder lote = new StringBuilder("[");
+        for (int u = 1; u <= USUARIOS; u++) {
+            mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Usuario " + u + "\",\"email\":\"usuario" + u + "@tickets.com\"}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(SqlBudget.dentroDoOrcamento());
+            for (int p = 0; p < PEDIDOS_POR_USUARIO; p++) {
+                if (lote.length() > 1) {
+                    lote.append(',');
+                }
+                lote.append("{\"item\":\"Show ").append(p).append("\",\"quantity\":1,\"value\":50.0,\"user\":{\"idUser\":")
+                        .append(u).append("}}");
+            }
+        }
+        mvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content(lote.append(']').toString()))
+                .andExpect(status().isCreated())
+                .andExpect(SqlBudget.dentroDoOrcamento());
+    }
+
+    @Test
+    void listagensEAgregacoes() throws Exception {
+        mvc.perform(get("/orders").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.dentroDoOrcamento())
+                .andExpect(SqlBudget.semRepeticao(2));
+        mvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.dentroDoOrcamento());
+        mvc.perform(get("/orders/totais-por-usuario"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.dentroDoOrcamento());
+        mvc.perform(get("/orders/totais-por-item"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.dentroDoOrcamento());
+    }
+
+    @Test
+    void detalhesNaoCarregamColecoesAParte() throws Exception {
+        mvc.perform(get("/orders/detalhe/{id}", 1))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.dentroDoOrcamento());
+        mvc.perform(get("/users/detalhe-usuario/{id}", 2))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.dentroDoOrcamento());
+        mvc.perform(get("/users/email/{email}", "usuario3@tickets.com"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.dentroDoOrcamento());
+        // Segunda leitura vem do cache de usuários: só o contador de alterações vai ao banco.
+        mvc.perform(get("/users/email/{email}", "usuario3@tickets.com"))
+                .andExpect(status().isOk())
+                .andExpect(SqlBudget.noMaximo(1));
+    }
+
+    // Com o ETag atual, o 304 sai da leitura do contador, sem a consulta da página ou do detalhe.
+    @Test
+    void getCondicionalSoLeOContador() throws Exception {
+        for (String url : List.of("/orders", "/users", "/orders/detalhe/2", "/users/detalhe-usuario/3")) {
+            String etag = mvc.perform(get(url)).andExpect(status().isOk()).andReturn()
+                    .getResponse().getHeader(HttpHeaders.ETAG);
+            mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(SqlBudgetFilter.HEADER_STATEMENTS, "1"));
+        }
+    }
+
+    @Test
+    void escritasPontuais() throws Exception {
+        mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Show avulso\",\"quantity\":2,\"value\":80.0,\"user\":{\"idUser\":4}}"))
+                .andExpect(status().isCreated())
+                .andExpect(SqlBudget.dentroDoOrcamento());
+        mvc.perform(put("/orders/{id}", 10).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Show remarcado\",\"quantity\":3,\"value\":90.0,\"version\":0}"))
+                .andExpect(status().isNoContent())
+                .andExpect(SqlBudget.dentroDoOrcamento())
+                .andExpect(header().string(SqlBudgetFilter.HEADER_STATEMENTS, "2"));
+        mvc.perform(delete("/orders/{id}", 11).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isNoContent())
+                .andExpect(SqlBudget.dentroDoOrcamento())
+                .andExpect(header().string(SqlBudgetFilter.HEADER_STATEMENTS, "2"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.tickets.stream;
+
+import com.tickets.dto.OrderEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Emitters sem conexão: um registra os eventos recebidos, o outro trava no envio como um cliente que
+// parou de ler o socket.
+class OrderEventBroadcasterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Queue<SseEmitter> emitters = new ArrayDeque<>();
+    private OrderEventBroadcaster broadcaster;
+
+    @AfterEach
+    void encerrar() {
+        broadcaster.encerrar();
+    }
+
+    @Test
+    void envioParadoDesconectaOAssinanteELiberaAThread() throws Exception {
+        // Uma thread de envio só: o assinante rápido só recebe se a thread presa no lento for liberada.
+        broadcaster = criar(64, 1, Duration.ofMillis(200));
+        Lento lento = new Lento();
+        Registrador rapido = new Registrador();
+        assinar(lento);
+        assinar(rapido);
+
+        broadcaster.publicar(List.of(criado(1), criado(2), criado(3)));
+
+        esperar(() -> rapido.recebidos.size() == 3);
+        assertThat(rapido.recebidos).extracting(OrderEvent::idOrder).containsExactly(1L, 2L, 3L);
+        assertThat(lento.interrompido.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("tickets.orders.stream.evicted").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("tickets.orders.stream.subscribers").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void assinantePresoNoEnvioEDesconectadoQuandoFicaUmaJanelaAtras() throws Exception {
+        broadcaster = criar(4, 2, Duration.ofHours(1));
+        Lento lento = new Lento();
+        assinar(lento);
+
+        broadcaster.publicar(List.of(criado(1)));
+        assertThat(lento.emEnvio.await(5, TimeUnit.SECONDS)).isTrue();
+        for (long id = 2; id <= 10; id++) {
+            broadcaster.publicar(List.of(criado(id)));
+        }
+
+        assertThat(lento.interrompido.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("tickets.orders.stream.evicted").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("tickets.orders.stream.subscribers").gauge().value()).isZero();
+    }
+
+    private OrderEventBroadcaster criar(int janela, int threads, Duration timeoutEnvio) {
+        return new OrderEventBroadcaster(registry, janela, 100, threads, Duration.ofHours(1), Duration.ofMinutes(30),
+                timeoutEnvio) {
+            @Override
+            SseEmitter criarEmitter(long timeout) {
+                return emitters.remove();
+            }
+        };
+    }
+
+    private void assinar(SseEmitter emitter) {
+        emitters.add(emitter);
+        assertThat(broadcaster.assinar(null)).containsSame(emitter);
+    }
+
+    private static OrderEvent criado(long id) {
+        return new OrderEvent(OrderEvent.Type.CREATED, id, "show", 1, 10.0, 1L);
+    }
+
+    private static void esperar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicao.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condição não atingida em 5s").isLessThan(limite);
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class Registrador extends SseEmitter {
+
+        final List<OrderEvent> recebidos = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder evento) {
+            for (ResponseBodyEmitter.DataWithMediaType parte : evento.build()) {
+                if (parte.getData() instanceof OrderEvent dados) {
+                    recebidos.add(dados);
+                }
+            }
+        }
+    }
+
+    private static final class Lento extends SseEmitter {
+
+        final CountDownLatch emEnvio = new CountDownLatch(1);
+        final CountDownLatch interrompido = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder evento) throws IOException {
+            emEnvio.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrompido.countDown();
+                throw new IOException("envio interrompido", e);
+            }
+        }
+    }
+}